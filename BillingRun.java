@@ -0,0 +1,304 @@
+/**
+ * The BillingRun class works out the end-of-day charges for a car park.
+ * It bills every completed session of the day and every car still parked at closing time,
+ * including any overstay penalties charged to them, and produces per-slot totals, per-owner totals
+ * and staff chargebacks.
+ *
+ * A run does not change the car park. Once its invoices are safely saved, pass its summary to
+ * CarPark.markBilled: cars still parked are then marked as billed up to the closing time, and the
+ * next run only charges the started hours after that, so a stay across several days is charged
+ * exactly what it would have cost in one go.
+ *
+ * The sessions are split into fixed-size ranges that are billed in parallel on a ForkJoinPool.
+ * Finished ranges are written to the invoice file strictly in order while later ranges are still
+ * being worked on, and only a limited number of ranges are in flight at once, so memory stays
+ * bounded however many sessions there are. All amounts are whole cents, so the totals are
+ * exactly the same on every run.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+public class BillingRun {
+
+    public static final long CENTS_PER_HOUR = 500; // $5 per hour, matching Car.getParkingFee
+
+    private static final int RANGE_SIZE = 8192; // Sessions billed by one task
+    private static final String INVOICE_HEADER = "slot,registration,owner,type,start,billed_from,end,hours,penalty_cents,fee_cents,status";
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final ForkJoinPool pool; // Where the billing tasks run
+
+    /**
+     * Constructor to set up a billing run on the shared ForkJoinPool.
+     */
+    public BillingRun() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor to set up a billing run on a specific pool, e.g. to limit how many cores it uses.
+     *
+     * @param pool The pool to run the billing tasks on.
+     */
+    public BillingRun(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Works out the fee for a stay, charging $5 for every started hour.
+     *
+     * @param start When the car was parked.
+     * @param end When the car left (or the closing time for cars still parked).
+     * @return The fee in cents.
+     */
+    public static long feeInCents(LocalDateTime start, LocalDateTime end) {
+        return hoursCharged(start, end) * CENTS_PER_HOUR;
+    }
+
+    /**
+     * Bills all completed sessions of the car park and all cars still parked at the closing time,
+     * writing one invoice line per session. Stays billed by an earlier run are only charged from
+     * where that run stopped. The car park is not changed; call CarPark.markBilled with the result
+     * once the invoices have been saved.
+     * The car park must not be changed while the sessions are being collected.
+     *
+     * @param carPark The car park to bill.
+     * @param closeTime The closing time, used as the end of every session that is still going on.
+     * @param invoices Where to write the invoice lines (CSV with a header line).
+     * @return The totals for the day.
+     * @throws IOException If the invoices cannot be written.
+     */
+    public Summary run(CarPark carPark, LocalDateTime closeTime, Writer invoices) throws IOException {
+        // Take a snapshot of every session: completed ones first, then one per occupied slot
+        List<ParkingSession> completed = carPark.getCompletedSessions();
+        List<ParkingSlot> slots = carPark.getSlots();
+        ParkingSession[] sessions = new ParkingSession[completed.size() + slots.size()];
+        int count = 0;
+        for (ParkingSession session : completed) {
+            sessions[count++] = session;
+        }
+        int completedCount = count;
+        for (ParkingSlot slot : slots) {
+            if (slot.isOccupied() && slot.getCar().getParkingTime() != null) {
+                sessions[count++] = new ParkingSession(slot.getId(), slot.getCar(), null,
+                        slot.getOverstayPenaltyCents(), slot.getBilledUpTo());
+            }
+        }
+        Summary summary = new Summary(closeTime, completedCount,
+                Collections.unmodifiableList(Arrays.asList(sessions).subList(completedCount, count)));
+        run(sessions, count, closeTime, invoices, summary);
+        return summary;
+    }
+
+    // Bill the first count sessions into the summary, keeping a bounded window of ranges in flight
+    private void run(ParkingSession[] sessions, int count, LocalDateTime closeTime, Writer invoices, Summary summary) throws IOException {
+        invoices.write(INVOICE_HEADER);
+        invoices.write('\n');
+
+        int maxInFlight = pool.getParallelism() * 4;
+        ArrayDeque<ForkJoinTask<RangeResult>> inFlight = new ArrayDeque<>();
+        int nextStart = 0;
+        while (nextStart < count || !inFlight.isEmpty()) {
+            // Keep the pool busy with the next ranges
+            while (nextStart < count && inFlight.size() < maxInFlight) {
+                int end = Math.min(count, nextStart + RANGE_SIZE);
+                inFlight.add(pool.submit(new RangeTask(sessions, nextStart, end, closeTime)));
+                nextStart = end;
+            }
+            // Then write the oldest range, so the invoice file stays in session order
+            RangeResult result = inFlight.poll().join();
+            invoices.write(result.invoiceLines);
+            summary.add(result);
+        }
+        invoices.flush();
+    }
+
+    // Number of started hours between two times (0 if the end is not after the start)
+    private static long hoursCharged(LocalDateTime start, LocalDateTime end) {
+        long seconds = end.toEpochSecond(ZoneOffset.UTC) - start.toEpochSecond(ZoneOffset.UTC);
+        return (seconds <= 0) ? 0 : (seconds + 3599) / 3600; // Round up any fraction of an hour
+    }
+
+    // Quote a CSV field if it contains a comma, quote or line break
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    // Bills one range of sessions
+    private static class RangeTask extends RecursiveTask<RangeResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final ParkingSession[] sessions;
+        private final int start;
+        private final int end;
+        private final LocalDateTime closeTime;
+
+        private RangeTask(ParkingSession[] sessions, int start, int end, LocalDateTime closeTime) {
+            this.sessions = sessions;
+            this.start = start;
+            this.end = end;
+            this.closeTime = closeTime;
+        }
+
+        @Override
+        protected RangeResult compute() {
+            RangeResult result = new RangeResult();
+            StringBuilder lines = new StringBuilder((end - start) * 96);
+            for (int i = start; i < end; i++) {
+                ParkingSession session = sessions[i];
+                LocalDateTime sessionEnd = session.isActive() ? closeTime : session.getEnd();
+                LocalDateTime billedFrom = (session.getBilledUpTo() == null) ? session.getStart() : session.getBilledUpTo();
+                // Charge the started hours of the whole stay minus those already billed, so splitting
+                // a stay across runs never rounds up more than billing it in one go
+                long hours = Math.max(0, hoursCharged(session.getStart(), sessionEnd) - hoursCharged(session.getStart(), billedFrom));
+                long fee = hours * CENTS_PER_HOUR + session.getPenaltyCents();
+
+                lines.append(csvField(session.getSlotId())).append(',')
+                     .append(csvField(session.getRegNumber())).append(',')
+                     .append(csvField(session.getOwner())).append(',')
+                     .append(session.isStaff() ? "staff" : "visitor").append(',')
+                     .append(session.getStart().format(TIME_FORMAT)).append(',')
+                     .append(billedFrom.format(TIME_FORMAT)).append(',')
+                     .append(sessionEnd.format(TIME_FORMAT)).append(',')
+                     .append(hours).append(',')
+                     .append(session.getPenaltyCents()).append(',')
+                     .append(fee).append(',')
+                     .append(session.isActive() ? "active" : "completed").append('\n');
+
+                result.sessionCount++;
+                result.totalCents += fee;
+                result.bySlot.merge(session.getSlotId(), fee, Long::sum);
+                String owner = (session.getOwner() == null) ? "" : session.getOwner();
+                result.byOwner.merge(owner, fee, Long::sum);
+                if (session.isStaff()) {
+                    result.staffChargebacks.merge(owner, fee, Long::sum);
+                }
+            }
+            result.invoiceLines = lines.toString();
+            return result;
+        }
+    }
+
+    // What one range of sessions adds up to
+    private static class RangeResult {
+        private String invoiceLines;
+        private int sessionCount;
+        private long totalCents;
+        private final Map<String, Long> bySlot = new HashMap<>();
+        private final Map<String, Long> byOwner = new HashMap<>();
+        private final Map<String, Long> staffChargebacks = new HashMap<>();
+    }
+
+    /**
+     * The totals of a billing run. All amounts are in cents, and the maps are sorted by key.
+     */
+    public static class Summary {
+        private final LocalDateTime closeTime; // The closing time the run billed up to
+        private final int completedSessionCount; // Number of completed sessions the run took from the car park
+        private final List<ParkingSession> activeSessions; // Stays that were still going on at the closing time
+        private int sessionCount; // Number of sessions billed
+        private long totalCents; // Total of all fees
+        private final Map<String, Long> bySlot = new HashMap<>(); // Total fees per slot ID
+        private final Map<String, Long> byOwner = new HashMap<>(); // Total fees per owner
+        private final Map<String, Long> staffChargebacks = new HashMap<>(); // Fees to charge back to each staff member
+
+        private Summary(LocalDateTime closeTime, int completedSessionCount, List<ParkingSession> activeSessions) {
+            this.closeTime = closeTime;
+            this.completedSessionCount = completedSessionCount;
+            this.activeSessions = activeSessions;
+        }
+
+        private void add(RangeResult result) {
+            sessionCount += result.sessionCount;
+            totalCents += result.totalCents;
+            result.bySlot.forEach((key, cents) -> bySlot.merge(key, cents, Long::sum));
+            result.byOwner.forEach((key, cents) -> byOwner.merge(key, cents, Long::sum));
+            result.staffChargebacks.forEach((key, cents) -> staffChargebacks.merge(key, cents, Long::sum));
+        }
+
+        // Get the closing time the run billed up to
+        public LocalDateTime getCloseTime() {
+            return closeTime;
+        }
+
+        // Get the number of completed sessions billed (the first ones in the car park's list)
+        public int getCompletedSessionCount() {
+            return completedSessionCount;
+        }
+
+        // Get the stays that were still going on at the closing time
+        public List<ParkingSession> getActiveSessions() {
+            return activeSessions;
+        }
+
+        // Get the number of sessions billed
+        public int getSessionCount() {
+            return sessionCount;
+        }
+
+        // Get the total of all fees, in cents
+        public long getTotalCents() {
+            return totalCents;
+        }
+
+        // Get the total fees per slot ID, in cents
+        public Map<String, Long> getTotalsBySlot() {
+            return Collections.unmodifiableMap(new TreeMap<>(bySlot));
+        }
+
+        // Get the total fees per owner, in cents
+        public Map<String, Long> getTotalsByOwner() {
+            return Collections.unmodifiableMap(new TreeMap<>(byOwner));
+        }
+
+        // Get the fees to charge back to each staff member, in cents
+        public Map<String, Long> getStaffChargebacks() {
+            return Collections.unmodifiableMap(new TreeMap<>(staffChargebacks));
+        }
+
+        // Return a short summary of the run
+        @Override
+        public String toString() {
+            long staffTotal = 0;
+            for (long cents : staffChargebacks.values()) {
+                staffTotal += cents;
+            }
+            return "Sessions billed: " + sessionCount + ", Total: $" + formatCents(totalCents) +
+                   ", Staff chargebacks: $" + formatCents(staffTotal) + " across " + staffChargebacks.size() + " staff";
+        }
+
+        /**
+         * Formats an amount in cents as dollars, e.g. 1505 becomes "15.05".
+         *
+         * @param cents The amount in cents.
+         * @return The amount in dollars with two decimal places.
+         */
+        public static String formatCents(long cents) {
+            long remainder = Math.abs(cents % 100);
+            return (cents / 100) + "." + (remainder < 10 ? "0" : "") + remainder;
+        }
+    }
+}
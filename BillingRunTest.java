@@ -0,0 +1,75 @@
+/**
+ * Tests for BillingRun, in particular that stays running across a close-of-day billing run
+ * are charged exactly once.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BillingRunTest {
+    private CarPark carPark;
+    private BillingRun billingRun;
+
+    @Before
+    public void setUp() {
+        carPark = new CarPark(1, 1);
+        billingRun = new BillingRun();
+    }
+
+    @Test
+    public void stayAcrossCloseOfDayIsChargedOnce() throws Exception {
+        Car car = new Car("T1234", "Visitor", false);
+        carPark.parkCar("V01", car);
+        LocalDateTime start = LocalDateTime.now().minusHours(3).plusMinutes(1);
+        car.setParkingTime(start);
+
+        // First run closes 90 minutes in: two started hours
+        BillingRun.Summary firstDay = billingRun.run(carPark, start.plusMinutes(90), new StringWriter());
+        carPark.markBilled(firstDay);
+        assertEquals(1000, firstDay.getTotalCents());
+
+        // The car leaves just under three hours in: only the third hour is left to charge
+        carPark.removeCar("T1234");
+        LocalDateTime end = carPark.getCompletedSessions().get(0).getEnd();
+        BillingRun.Summary secondDay = billingRun.run(carPark, end, new StringWriter());
+        carPark.markBilled(secondDay);
+        assertEquals(500, secondDay.getTotalCents());
+
+        assertEquals(BillingRun.feeInCents(start, end), firstDay.getTotalCents() + secondDay.getTotalCents());
+    }
+
+    @Test
+    public void completedStaysAreNotBilledAgain() throws Exception {
+        carPark.parkCar("V01", new Car("T1234", "Visitor", false));
+        carPark.removeCar("T1234");
+
+        BillingRun.Summary firstRun = billingRun.run(carPark, LocalDateTime.now(), new StringWriter());
+        carPark.markBilled(firstRun);
+        BillingRun.Summary secondRun = billingRun.run(carPark, LocalDateTime.now(), new StringWriter());
+
+        assertEquals(1, firstRun.getSessionCount());
+        assertEquals(0, secondRun.getSessionCount());
+        assertEquals(0, carPark.getCompletedSessions().size());
+    }
+
+    @Test
+    public void unsavedRunDoesNotMarkAnythingAsBilled() throws Exception {
+        Car car = new Car("T1234", "Visitor", false);
+        carPark.parkCar("V01", car);
+        LocalDateTime start = LocalDateTime.now().minusMinutes(30);
+        car.setParkingTime(start);
+
+        // Without markBilled the next run charges the stay from the start again
+        billingRun.run(carPark, start.plusMinutes(20), new StringWriter());
+        BillingRun.Summary retry = billingRun.run(carPark, start.plusMinutes(20), new StringWriter());
+
+        assertEquals(500, retry.getTotalCents());
+    }
+}
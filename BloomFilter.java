@@ -0,0 +1,81 @@
+/**
+ * The BloomFilter class is a compact set of strings that can answer "definitely not present"
+ * very quickly. A "maybe present" answer can be wrong (a false positive), so it must be
+ * confirmed against an exact list, but a "not present" answer is always right.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+public class BloomFilter {
+
+    private final long[] bits; // The bit array, 64 bits per long
+    private final int mask; // Number of bits minus one (the size is a power of two)
+    private final int numHashes; // How many bits are set for each entry
+
+    /**
+     * Constructor to set up an empty filter sized for the expected number of entries.
+     *
+     * @param expectedEntries How many entries will be added.
+     * @param falsePositiveRate The acceptable chance of a wrong "maybe present" answer (e.g. 0.01 for 1%).
+     */
+    public BloomFilter(int expectedEntries, double falsePositiveRate) {
+        int entries = Math.max(1, expectedEntries);
+        // Standard sizing: m = -n ln(p) / (ln 2)^2 bits, k = (m / n) ln 2 hashes
+        double idealBits = -entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        int numBits = 64;
+        while (numBits < idealBits && numBits < (1 << 30)) {
+            numBits <<= 1; // Round up to a power of two so the index is a simple mask
+        }
+        this.bits = new long[numBits / 64];
+        this.mask = numBits - 1;
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / entries * Math.log(2)));
+    }
+
+    /**
+     * Adds a string to the filter.
+     *
+     * @param value The string to add.
+     */
+    public void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1; // Odd step so the probes spread over the whole array
+        for (int i = 0; i < numHashes; i++) {
+            int bit = (h1 + i * h2) & mask;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Checks whether a string might have been added to the filter.
+     *
+     * @param value The string to look for.
+     * @return false if the string was definitely never added, true if it may have been.
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 64-bit FNV-1a hash of the characters, with a final mix so both halves are well spread
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
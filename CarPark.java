@@ -2,51 +2,165 @@
  * The CarPark class is all about managing parking slots. It handles adding and removing slots, 
  * finding and parking cars, and even checking if slots are occupied or not. 
  * Basically, it’s the brain behind the parking system.
+ * The slots themselves are kept in a SlotStore, so the same features work whether the slots live
+ * on the heap (the default) or off the heap for very large sites.
  *
  * @author Bhawana Joshi
  * @version 1
  * @date 20/10/2024
  */
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class CarPark {
-    private List<ParkingSlot> slots; // List that stores all the parking slots
+    private SlotStore slots; // Where the parking slots are kept
+    private OccupancyForecaster forecaster; // Learns occupancy patterns from park and remove events
+    private ExpiryScheduler expiryScheduler; // Watches parked cars for overstays
+    private PermitValidator permitValidator; // Checks staff permits and blocked plates (null means no checks)
+    private List<ParkingSession> completedSessions; // Stays that have ended since the last billing run
 
     // Constructor that sets up the car park with the given number of staff and visitor slots
     public CarPark(int staffSlots, int visitorSlots) {
-        slots = new ArrayList<>();
+        this(staffSlots, visitorSlots, new HeapSlotStore(staffSlots + visitorSlots));
+    }
+
+    // Constructor that sets up the car park with its slots kept in the given (empty) store
+    public CarPark(int staffSlots, int visitorSlots, SlotStore store) {
+        slots = store;
+        forecaster = new OccupancyForecaster();
+        expiryScheduler = new ExpiryScheduler(slots::findByKey);
+        completedSessions = new ArrayList<>();
+        expiryScheduler.addListener(this::chargeOverstayPenalty); // So overstay penalties end up on the bill
         // Create staff slots with IDs like "S01", "S02", etc.
         for (int i = 1; i <= staffSlots; i++) {
-            slots.add(new ParkingSlot("S" + String.format("%02d", i), "staff"));
+            indexNewSlot(new ParkingSlot(numberedSlotId('S', i), "staff"));
         }
         // Create visitor slots with IDs like "V01", "V02", etc.
         for (int i = 1; i <= visitorSlots; i++) {
-            slots.add(new ParkingSlot("V" + String.format("%02d", i), "visitor"));
+            indexNewSlot(new ParkingSlot(numberedSlotId('V', i), "visitor"));
         }
     }
     
-    // Method to get the list of parking slots
+    // Method to get the list of parking slots (read-only; use addSlot and deleteSlot to change it)
     public List<ParkingSlot> getSlots() {
-        return slots; // Return the list of parking slots
+        return slots.asList(); // Return the list of parking slots
+    }
+
+    // Method to get the forecaster that predicts free slots for the coming hours
+    public OccupancyForecaster getForecaster() {
+        return forecaster;
+    }
+
+    // Method to get the scheduler that raises overstay alerts (use it to add listeners or change the rules)
+    public ExpiryScheduler getExpiryScheduler() {
+        return expiryScheduler;
+    }
+
+    // Method to get the stays that have ended since the sessions were last cleared (e.g. by the billing run)
+    public List<ParkingSession> getCompletedSessions() {
+        return completedSessions;
+    }
+
+    // Method to forget the completed stays, e.g. once they have been billed
+    public void clearCompletedSessions() {
+        completedSessions.clear();
+    }
+
+    // Method to record that the invoices of a billing run have been saved, so nothing is billed twice.
+    // The completed stays it billed are forgotten, and cars it billed that are still parked are marked
+    // as billed up to its closing time, so the next run only charges them from there.
+    public void markBilled(BillingRun.Summary summary) {
+        completedSessions.subList(0, summary.getCompletedSessionCount()).clear();
+        for (ParkingSession session : summary.getActiveSessions()) {
+            ParkingSlot slot = findSlotById(session.getSlotId());
+            if (slot == null || !slot.isOccupied()) {
+                continue;
+            }
+            Car car = slot.getCar();
+            // Only mark the stay that was billed, not a different car that has parked here since
+            if (car.getRegNumber().equals(session.getRegNumber()) && session.getStart().equals(car.getParkingTime())) {
+                slot.setBilledUpTo(summary.getCloseTime());
+                slot.addOverstayPenaltyCents(-session.getPenaltyCents()); // Penalties raised since the run stay on the bill
+            }
+        }
+    }
+
+    // Method to set the validator used to check cars at the gate (null turns the checks off)
+    public void setPermitValidator(PermitValidator permitValidator) {
+        this.permitValidator = permitValidator;
+    }
+
+    // Method to check whether a car may enter before it is given a slot.
+    // Returns null if the car may enter, otherwise a message explaining why it may not.
+    public String checkAdmission(Car car) {
+        PermitValidator validator = permitValidator;
+        return (validator == null) ? null : validator.checkAdmission(car);
+    }
+
+    // Method to raise alerts for any cars that have overstayed since the last check. Returns the number of alerts.
+    public int checkOverstays() {
+        return expiryScheduler.advanceTo(LocalDateTime.now());
     }
 
     
     // Method to add a slot, but only if a slot with the same ID doesn't already exist
     public void addSlot(ParkingSlot slot) {
-        if (findSlotById(slot.getId()) == null) {
-            slots.add(slot);
+        if (!slots.canStoreSlotId(slot.getId())) {
+            System.out.println("Slot ID " + slot.getId() + " cannot be stored by this car park.");
+        } else if (indexNewSlot(slot)) {
             System.out.println("Slot added successfully.");
         } else {
             System.out.println("Slot ID already exists.");
         }
     }
+
+    // Method to add many slots at once (e.g. a whole site layout), skipping any IDs that already exist.
+    // Returns the number of slots that were added.
+    public int addSlots(Collection<ParkingSlot> newSlots) {
+        slots.ensureCapacity(slots.size() + newSlots.size());
+        int added = 0;
+        int unsupported = 0;
+        for (ParkingSlot slot : newSlots) {
+            if (!slots.canStoreSlotId(slot.getId())) {
+                unsupported++;
+            } else if (indexNewSlot(slot)) {
+                added++;
+            }
+        }
+        String message = added + " slots added, " + (newSlots.size() - added - unsupported) + " skipped as duplicates";
+        if (unsupported > 0) {
+            message += ", " + unsupported + " skipped as IDs this car park cannot store";
+        }
+        System.out.println(message + ".");
+        return added;
+    }
+
+    // Method to add all slots from a layout file (see SlotLayout), skipping any IDs that already exist.
+    // Files ending in ".csv" are read as CSV, anything else as the binary format. Returns the number added.
+    public int importLayout(Path file) throws IOException {
+        boolean csv = file.getFileName().toString().toLowerCase().endsWith(".csv");
+        return addSlots(csv ? SlotLayout.readCsv(file) : SlotLayout.readBinary(file));
+    }
+
+    // Method to save all slots to a layout file (see SlotLayout), as CSV if the name ends in ".csv", otherwise binary
+    public void exportLayout(Path file) throws IOException {
+        if (file.getFileName().toString().toLowerCase().endsWith(".csv")) {
+            SlotLayout.writeCsv(file, getSlots());
+        } else {
+            SlotLayout.writeBinary(file, getSlots());
+        }
+    }
     
     // Method to delete a slot, but only if it's not occupied
     public void deleteSlot(String slotId) {
         ParkingSlot slot = findSlotById(slotId);
         if (slot != null && !slot.isOccupied()) {
-            slots.remove(slot);
+            slots.remove(slotId);
+            forecaster.slotRemoved(slot.getType());
             System.out.println("Slot deleted successfully.");
         } else if (slot != null && slot.isOccupied()) {
             System.out.println("Cannot delete an occupied slot.");
@@ -57,26 +171,42 @@ public class CarPark {
     
     // Method to list all the slots and their current status (occupied/unoccupied)
     public void listAllSlots() {
-        System.out.println("Here’s a list of all parking slots and their status:\n");
-        for (ParkingSlot slot : slots) {
-            System.out.println(slot);
+        // Collect the cached status lines and print them in one go
+        StringBuilder listing = new StringBuilder(slots.size() * 64);
+        listing.append("Here’s a list of all parking slots and their status:\n\n");
+        for (ParkingSlot slot : slots.asList()) {
+            listing.append(slot.getStatusView().getListingText()).append('\n');
         }
+        System.out.print(listing);
     }
     
     // Method to delete all slots that aren't occupied
     public void deleteAllUnoccupiedSlots() {
-        slots.removeIf(slot -> !slot.isOccupied());
+        slots.removeUnoccupied(slot -> forecaster.slotRemoved(slot.getType()));
         System.out.println("All unoccupied slots have been deleted.");
     }
 
-    // Method to park a car in a specific slot, if the slot is available and the car type matches the slot type
-    public void parkCar(String slotId, Car car) {
+    // Method to park a car in a specific slot, if the slot is available and the car type matches the slot type.
+    // Returns true if the car was parked, false otherwise.
+    public boolean parkCar(String slotId, Car car) {
+        String refusal = checkAdmission(car);
+        if (refusal != null) {
+            System.out.println(refusal);
+            return false;
+        }
+        if (!slots.canStoreRegNumber(car.getRegNumber())) {
+            System.out.println("Registration number " + car.getRegNumber() + " cannot be stored by this car park.");
+            return false;
+        }
         ParkingSlot slot = findSlotById(slotId);
         if (slot != null && !slot.isOccupied()) {
             if ((slot.getType().equals("staff") && car.isStaff()) ||
                 (slot.getType().equals("visitor") && !car.isStaff())) {
                 slot.parkCar(car);
+                forecaster.recordPark(slot.getType(), car.getParkingTime());
+                expiryScheduler.schedule(slots.keyOf(slot.getId()), slot.getType(), car.getParkingTime());
                 System.out.println("Car parked successfully.");
+                return true;
             } else {
                 System.out.println("Car cannot be parked in this slot type.");
             }
@@ -85,44 +215,78 @@ public class CarPark {
         } else {
             System.out.println("Slot not found.");
         }
+        return false;
     }
     
     // Method to find a car by its registration number and show how long it's been parked and the fee
     public void findCar(String regNumber) {
-        for (ParkingSlot slot : slots) {
-            if (slot.isOccupied() && slot.getCar().getRegNumber().equals(regNumber)) {
-                long totalDurationInSeconds = slot.getParkingDurationInSeconds();
-                long hours = totalDurationInSeconds / 3600;
-                long minutes = (totalDurationInSeconds % 3600) / 60;
-                long seconds = totalDurationInSeconds % 60;
-                double fee = slot.calculateParkingFee();
-                System.out.println("Car found in slot: " + slot.getId() + " (Owner: " + slot.getCar().getOwner() + ")");
-                System.out.println("Parked for: " + hours + " hours " + minutes + " minutes " + seconds + " seconds, Fee: $" + fee);
-                return;
-            }
+        ParkingSlot slot = slots.findByCar(regNumber);
+        if (slot != null) {
+            long totalDurationInSeconds = slot.getParkingDurationInSeconds();
+            long hours = totalDurationInSeconds / 3600;
+            long minutes = (totalDurationInSeconds % 3600) / 60;
+            long seconds = totalDurationInSeconds % 60;
+            double fee = slot.calculateParkingFee();
+            System.out.println("Car found in slot: " + slot.getId() + " (Owner: " + slot.getCar().getOwner() + ")");
+            System.out.println("Parked for: " + hours + " hours " + minutes + " minutes " + seconds + " seconds, Fee: $" + fee);
+            return;
         }
         System.out.println("Car not found.");
     }
 
-    // Method to remove a car from its slot, based on its registration number
-    public void removeCar(String regNumber) {
-        for (ParkingSlot slot : slots) {
-            if (slot.isOccupied() && slot.getCar().getRegNumber().equals(regNumber)) {
-                slot.removeCar();
-                System.out.println("Car removed successfully.");
-                return;
+    // Method to remove a car from its slot, based on its registration number.
+    // Returns true if the car was removed, false if it was not found.
+    public boolean removeCar(String regNumber) {
+        ParkingSlot slot = slots.findByCar(regNumber);
+        if (slot != null) {
+            Car car = slot.getCar();
+            long penaltyCents = slot.getOverstayPenaltyCents();
+            LocalDateTime billedUpTo = slot.getBilledUpTo();
+            LocalDateTime removedAt = LocalDateTime.now();
+            expiryScheduler.cancel(slots.keyOf(slot.getId()));
+            slot.removeCar();
+            if (car.getParkingTime() != null) {
+                completedSessions.add(new ParkingSession(slot.getId(), car, removedAt, penaltyCents, billedUpTo));
             }
+            forecaster.recordRemove(slot.getType(), removedAt);
+            System.out.println("Car removed successfully.");
+            return true;
         }
         System.out.println("Car not found.");
+        return false;
     }
 
     //method to find a slot by its ID
     public ParkingSlot findSlotById(String slotId) {
-        for (ParkingSlot slot : slots) {
-            if (slot.getId().equals(slotId)) {
-                return slot;
-            }
+        return slots.findById(slotId);
+    }
+
+    // Helper to charge an overstay penalty to the car it was raised for, if that car is still in the slot.
+    // The same stay is recognised by its parking time, and plates are compared ignoring case since some
+    // slot stores keep them in upper case.
+    private void chargeOverstayPenalty(OverstayAlert alert) {
+        ParkingSlot slot = findSlotById(alert.getSlotId());
+        if (slot == null || !slot.isOccupied()) {
+            return;
+        }
+        Car car = slot.getCar();
+        if (car.getRegNumber().equalsIgnoreCase(alert.getCar().getRegNumber())
+                && alert.getCar().getParkingTime().equals(car.getParkingTime())) {
+            slot.addOverstayPenaltyCents(alert.getPenaltyCents());
         }
-        return null;
+    }
+
+    // Helper to store a new slot and tell the forecaster about it. Returns false if the ID already exists.
+    private boolean indexNewSlot(ParkingSlot slot) {
+        if (!slots.add(slot)) {
+            return false;
+        }
+        forecaster.slotAdded(slot.getType());
+        return true;
+    }
+
+    // Helper to build numbered slot IDs like "S01" or "V123" without going through String.format
+    private static String numberedSlotId(char prefix, int number) {
+        return number < 10 ? prefix + "0" + number : prefix + Integer.toString(number);
     }
 }
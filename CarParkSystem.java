@@ -12,11 +12,23 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class CarParkSystem extends JFrame {
+    private static final DateTimeFormatter INVOICE_FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd-HHmmss");
+    private static final int PERMIT_RELOAD_MINUTES = 5; // How often the permit list files are checked for changes
+
     private JLabel[] parkingSlots; // Array to hold labels representing parking slots
     private String[] slotTypes; // Array to hold the type of each slot (staff or visitor)
     private boolean[] isOccupied; // Tracks if a slot is occupied
@@ -41,6 +53,8 @@ public class CarParkSystem extends JFrame {
 
         // Initialize CarPark instance
         carPark = new CarPark(staffSlotsCount, visitorSlotsCount);
+        loadPermitLists();
+        loadForecastModel();
 
         // Fill slotTypes array based on user input
         for (int i = 0; i < visitorSlotsCount; i++) {
@@ -86,6 +100,8 @@ public class CarParkSystem extends JFrame {
         JButton findCarButton = new JButton("Find Car");
         JButton deleteslotButton = new JButton("Delete slot");
         JButton addslotButton = new JButton("Add Parking slot");
+        JButton forecastButton = new JButton("Free Slot Forecast");
+        JButton billingButton = new JButton("Close of Day Billing");
 
         // Buttons to the action panel
         actionsPanel.add(refreshButton);
@@ -94,6 +110,8 @@ public class CarParkSystem extends JFrame {
         actionsPanel.add(addslotButton);
         actionsPanel.add(parkCarButton);
         actionsPanel.add(removeCarButton);
+        actionsPanel.add(forecastButton);
+        actionsPanel.add(billingButton);
         actionsPanel.add(exitButton);
 
         add(actionsPanel, BorderLayout.SOUTH);
@@ -112,8 +130,91 @@ public class CarParkSystem extends JFrame {
         parkCarButton.addActionListener(e -> parkCar());
         removeCarButton.addActionListener(e -> removeCar());
         findCarButton.addActionListener(e -> findCar());
+        forecastButton.addActionListener(e -> showForecast());
+        billingButton.addActionListener(e -> runBilling());
         exitButton.addActionListener(e -> System.exit(0));
         refreshButton.addActionListener(e -> refreshParkingSlots());
+
+        // Check for overstaying cars once a minute and show all new alerts together in one dialog.
+        // The timer runs on the event thread, so the alerts are collected and shown on the same thread.
+        java.util.List<OverstayAlert> newAlerts = new java.util.ArrayList<>();
+        carPark.getExpiryScheduler().addListener(newAlerts::add);
+        Timer overstayTimer = new Timer(60 * 1000, e -> {
+            carPark.checkOverstays();
+            showOverstayAlerts(newAlerts);
+            newAlerts.clear();
+        });
+        overstayTimer.start();
+    }
+
+    /**
+     * Loads the forecast model saved by an earlier run, if there is one, and saves it again when
+     * the application exits so the seasonal history survives a restart.
+     */
+    private void loadForecastModel() {
+        Path modelFile = Paths.get("forecast_model.bin");
+        OccupancyForecaster forecaster = carPark.getForecaster();
+        if (Files.exists(modelFile)) {
+            try {
+                forecaster.load(modelFile);
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(this, "Could not load the forecast model: " + e.getMessage());
+            }
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                forecaster.save(modelFile);
+            } catch (IOException e) {
+                System.out.println("Could not save the forecast model: " + e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Loads the staff permit and blocked plate lists from the working directory. Each list is loaded
+     * on its own, and the user is warned about any list whose file is missing or unreadable: without
+     * the staff permit list every staff car is refused, and without the blocked plate list that check is off. The files are checked for changes every few minutes and reloaded when
+     * they have been updated.
+     */
+    private void loadPermitLists() {
+        Path staffPermitFile = Paths.get("staff_permits.txt");
+        Path blockedPlateFile = Paths.get("blocked_plates.txt");
+        PermitValidator validator = new PermitValidator(staffPermitFile, blockedPlateFile);
+        try {
+            validator.reload();
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not load the permit lists: " + e.getMessage(),
+                    "Permit Lists", JOptionPane.ERROR_MESSAGE);
+        }
+        carPark.setPermitValidator(validator);
+
+        String warning = "";
+        if (!validator.isStaffPermitCheckOn()) {
+            warning += "Staff permit list is not loaded (" + staffPermitFile.toAbsolutePath() + "): every car entered as staff will be refused.\n";
+        }
+        if (!validator.isBlockedPlateCheckOn()) {
+            warning += "Blocked plate check is OFF (" + blockedPlateFile.toAbsolutePath() + " not loaded): blocked cars will be let in.\n";
+        }
+        if (!warning.isEmpty()) {
+            JOptionPane.showMessageDialog(this, warning + "Add the file and it will be picked up within " + PERMIT_RELOAD_MINUTES + " minutes.",
+                    "Permit Lists Missing", JOptionPane.WARNING_MESSAGE);
+        }
+
+        // Pick up new versions of the lists (e.g. the nightly refresh) without a restart
+        ScheduledExecutorService reloader = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "permit-list-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(() -> {
+            try {
+                if (validator.reloadIfChanged()) {
+                    System.out.println("Permit lists reloaded.");
+                }
+            } catch (IOException e) {
+                System.out.println("Could not reload the permit lists: " + e.getMessage());
+            }
+        }, PERMIT_RELOAD_MINUTES, PERMIT_RELOAD_MINUTES, TimeUnit.MINUTES);
     }
 
     /**
@@ -126,28 +227,9 @@ public class CarParkSystem extends JFrame {
         int totalSlots = currentSlots.size(); // Use updated number of slots
         parkingSlots = new JLabel[totalSlots]; // Update the parkingSlots array size
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
         for (int i = 0; i < totalSlots; i++) {
             ParkingSlot slot = currentSlots.get(i);
-            String slotId = slot.getId();
-            String status = "<html><div style='text-align: center;'>" + slotId + "<br>(" + slot.getType() + ")<br>";
-
-            if (slot.isOccupied()) {
-                Car car = slot.getCar();
-                LocalDateTime parkedTime = car.getParkingTime();
-                Duration duration = Duration.between(parkedTime, LocalDateTime.now());
-
-                long hours = duration.toHours();
-                long minutes = duration.toMinutes() % 60;
-                double fee = car.getParkingFee();
-
-                String formattedTime = parkedTime.format(formatter);
-                status += "Occupied by " + car.getOwner() + "<br>Car Reg. Number: " + car.getRegNumber() + "<br>Parked since: " + formattedTime + "<br>Duration: " + hours + "h " + minutes + "m" + "<br>Fee: $" + fee;
-            } else {
-                status += "Vacant";
-            }
-            status += "</div></html>";
+            String status = slot.getStatusView().getLabelHtml(); // Cached, rebuilt when the minutes or fee change
 
             // Create JLabel with updated status
             JLabel parkingSlotLabel = new JLabel(status, JLabel.CENTER);
@@ -189,6 +271,11 @@ public class CarParkSystem extends JFrame {
     
         Car car = new Car(regNumber, owner, isStaff);
         car.setParkingTime(LocalDateTime.now());
+        String refusal = carPark.checkAdmission(car);
+        if (refusal != null) {
+            JOptionPane.showMessageDialog(this, refusal);
+            return;
+        }
     
         // Dialog to choose which slot to park in
         String[] slotOptions = carPark.getSlots().stream()
@@ -206,13 +293,11 @@ public class CarParkSystem extends JFrame {
     
         if (selectedSlotId != null) {
             // Park the car in the selected slot
-            ParkingSlot selectedSlot = carPark.findSlotById(selectedSlotId);
-            if (selectedSlot != null) {
-                selectedSlot.parkCar(car);
+            if (carPark.parkCar(selectedSlotId, car)) {
                 JOptionPane.showMessageDialog(this, "Car parked successfully in slot " + selectedSlotId + ".");
                 refreshParkingSlots();
             } else {
-                JOptionPane.showMessageDialog(this, "Slot not found.");
+                JOptionPane.showMessageDialog(this, "Car could not be parked in slot " + selectedSlotId + ".");
             }
         }
     }
@@ -239,7 +324,7 @@ public class CarParkSystem extends JFrame {
 
             if (choice == 0) {
                 // Remove the car
-                slot.removeCar();
+                carPark.removeCar(slot.getCar().getRegNumber());
                 JOptionPane.showMessageDialog(this, "Car removed successfully from slot " + slot.getId() + ".");
                 refreshParkingSlots(); // Refresh display after removing the car
             } else if (choice == 1) {
@@ -302,7 +387,15 @@ public class CarParkSystem extends JFrame {
 
         Car car = new Car(regNumber, owner, isStaff);
         car.setParkingTime(LocalDateTime.now());
-        slot.parkCar(car);
+        String refusal = carPark.checkAdmission(car);
+        if (refusal != null) {
+            JOptionPane.showMessageDialog(this, refusal);
+            return;
+        }
+        if (!carPark.parkCar(slot.getId(), car)) {
+            JOptionPane.showMessageDialog(this, "Car could not be parked in slot " + slot.getId() + ".");
+            return;
+        }
 
         JOptionPane.showMessageDialog(this, "Car parked successfully in slot " + slot.getId() + ".");
         refreshParkingSlots(); // Refresh display after parking the car
@@ -337,10 +430,10 @@ public class CarParkSystem extends JFrame {
         }
 
         // Validate the slot ID format based on slot type
-        if (slotType.equalsIgnoreCase("staff") && !slotId.matches("S\\d{2}")) {
-            return "Staff slot ID must start with 'S' followed by two digits (e.g., S01).";
-        } else if (slotType.equalsIgnoreCase("visitor") && !slotId.matches("V\\d{2}")) {
-            return "Visitor slot ID must start with 'V' followed by two digits (e.g., V01).";
+        if (slotType.equalsIgnoreCase("staff") && !SlotLayout.isValidSlotId(slotId, slotType)) {
+            return "Staff slot ID must be 'S' followed by at least two digits, with an optional zone prefix (e.g., S01 or B2-S001), and at most " + SlotLayout.MAX_SLOT_ID_LENGTH + " characters long.";
+        } else if (slotType.equalsIgnoreCase("visitor") && !SlotLayout.isValidSlotId(slotId, slotType)) {
+            return "Visitor slot ID must be 'V' followed by at least two digits, with an optional zone prefix (e.g., V01 or B2-V001), and at most " + SlotLayout.MAX_SLOT_ID_LENGTH + " characters long.";
         }
 
         // Create the new ParkingSlot
@@ -401,7 +494,7 @@ public class CarParkSystem extends JFrame {
         if (slotToRemove == null) {
             JOptionPane.showMessageDialog(this, "Car with registration number " + regNumber + " not found.");
         } else {
-            slotToRemove.removeCar();
+            carPark.removeCar(regNumber);
             JOptionPane.showMessageDialog(this, "Car removed successfully from slot " + slotToRemove.getId() + ".");
             refreshParkingSlots();
         }
@@ -429,10 +522,9 @@ public class CarParkSystem extends JFrame {
         } else {
             Car car = slotToFind.getCar();
             LocalDateTime parkedTime = car.getParkingTime();
-            double fee = car.getParkingFee();
+            double fee = slotToFind.calculateParkingFee(); // Includes any overstay penalties
 
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            String formattedTime = parkedTime.format(formatter);
+            String formattedTime = parkedTime.format(SlotStatusView.TIME_FORMAT);
 
             String message = "Car found in slot: " + slotToFind.getId() + "\n" +
                     "Parked since: " + formattedTime + "\n" +
@@ -441,6 +533,60 @@ public class CarParkSystem extends JFrame {
         }
     }
 
+    /**
+     * Shows all overstay alerts raised since the last check together in one dialog, then refreshes
+     * the slot list so the penalties show in the fees. Does nothing if there are no alerts.
+     */
+    private void showOverstayAlerts(java.util.List<OverstayAlert> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder();
+        for (OverstayAlert alert : alerts) {
+            message.append(alert).append('\n');
+        }
+        JTextArea text = new JTextArea(message.toString(), Math.min(alerts.size(), 15), 70);
+        text.setEditable(false);
+        JOptionPane.showMessageDialog(this, new JScrollPane(text),
+                alerts.size() + " Overstay Alert" + (alerts.size() == 1 ? "" : "s"), JOptionPane.WARNING_MESSAGE);
+        refreshParkingSlots(); // Penalties have been added to the fees shown
+    }
+
+    /**
+     * Shows the predicted number of free staff and visitor slots for the next few hours.
+     */
+    private void showForecast() {
+        OccupancyForecaster forecaster = carPark.getForecaster();
+        StringBuilder message = new StringBuilder("Predicted free slots:\n");
+        for (int hoursAhead = 0; hoursAhead <= 3; hoursAhead++) {
+            String label = (hoursAhead == 0) ? "This hour" : "In " + hoursAhead + " hour" + (hoursAhead > 1 ? "s" : "");
+            message.append(label).append(": ")
+                   .append(forecaster.predictFreeSlotsInHours("staff", hoursAhead)).append(" staff, ")
+                   .append(forecaster.predictFreeSlotsInHours("visitor", hoursAhead)).append(" visitor\n");
+        }
+        JOptionPane.showMessageDialog(this, message.toString());
+    }
+
+    /**
+     * Runs the close-of-day billing: writes a new invoice file for everything not billed yet
+     * and shows the totals. Only once the file has been written and closed is the car park told
+     * what was billed, so a failed run can simply be repeated.
+     */
+    private void runBilling() {
+        LocalDateTime closeTime = LocalDateTime.now();
+        // One file per run, never overwriting an earlier run's invoices
+        Path invoiceFile = Paths.get("invoices-" + closeTime.format(INVOICE_FILE_TIME_FORMAT) + ".csv");
+        BillingRun.Summary summary;
+        try (Writer writer = Files.newBufferedWriter(invoiceFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            summary = new BillingRun().run(carPark, closeTime, writer);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not write the invoices, nothing has been marked as billed: " + e.getMessage());
+            return;
+        }
+        carPark.markBilled(summary);
+        JOptionPane.showMessageDialog(this, summary + "\nInvoices written to " + invoiceFile.toAbsolutePath());
+    }
+
     /**
      * Main method to launch the car park system GUI.
      *
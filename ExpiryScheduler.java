@@ -0,0 +1,319 @@
+/**
+ * The ExpiryScheduler class watches parked cars for overstays without scanning every slot.
+ * Each car is registered when it is parked and placed on a timing wheel: a ring of one-minute
+ * buckets covering a whole day, where a car sits in the bucket for the minute of its deadline.
+ * Advancing the clock only looks at the buckets for the minutes that have passed, so each car
+ * is touched about once per day it stays, and alerts fire without any periodic full scan.
+ *
+ * A car's deadline is the earliest of its maximum stay (set per slot type) and the next
+ * overnight cutoff time. When a deadline passes, every OverstayListener is told about it, and
+ * the CarPark adds the overstay penalty to the car's bill. If the car is still parked, its timer
+ * is then set again for the next rule it will break, so a visitor flagged for staying too long is
+ * flagged again at the overnight cutoff, and a car left for a week is flagged every night.
+ * If the checks stop for a while, each car that overstayed in the meantime is flagged once when
+ * they start again.
+ * Timers are kept per slot key (see SlotStore.keyOf) and hold no objects: each timer is a row in
+ * a few primitive arrays (deadline, next timer in the same bucket, and why it fires), so watching
+ * a million parked cars costs a few tens of bytes each. When a timer fires, the slot and its car
+ * are read back from the store.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongFunction;
+
+public class ExpiryScheduler {
+
+    private static final int WHEEL_SIZE = 24 * 60; // One bucket per minute of the day
+    private static final int NONE = -1; // End of a list of timers
+
+    // Why a timer fires (FREE and CANCELLED timers never fire)
+    private static final byte FREE = 0;
+    private static final byte MAX_STAY = 1;
+    private static final byte OVERNIGHT = 2;
+    private static final byte CANCELLED = 3;
+
+    private final LongFunction<ParkingSlot> slotLookup; // Finds a slot by its key when its timer fires
+    private final int[] wheel; // First timer in each bucket
+    private final LongIndex timersBySlot; // Timer of the car in each slot, so it can be cancelled on removal
+    private final List<OverstayListener> listeners; // Who to tell about overstays
+    private long currentTick; // The last minute that has been processed (-1 until first use)
+
+    // One element per timer
+    private long[] slotKeys; // Key of the slot the timer is for
+    private long[] deadlines; // When the timer fires, in epoch seconds (UTC)
+    private int[] next; // Next timer in the same bucket, or in the free list
+    private byte[] reasons; // Why the timer fires (MAX_STAY or OVERNIGHT), or FREE or CANCELLED
+    private int freeTimers; // First timer in the free list (NONE if empty)
+    private int usedTimers; // Number of timers that have ever been handed out
+
+    private Duration staffMaxStay; // Longest a staff car may stay (null means no limit)
+    private Duration visitorMaxStay; // Longest a visitor car may stay (null means no limit)
+    private LocalTime overnightCutoff; // Cars still parked at this time are overnight (null means no check)
+    private long overstayPenaltyCents; // Extra fee added to the parking fee when a car overstays, in cents
+
+    /**
+     * Constructor to set up a scheduler with the default rules:
+     * visitors may stay up to 4 hours, staff have no limit, any car still parked at 02:00
+     * counts as left overnight, and overstaying adds a $20 penalty.
+     *
+     * @param slotLookup Finds a slot by its key (see SlotStore.findByKey), returning null if it is gone.
+     */
+    public ExpiryScheduler(LongFunction<ParkingSlot> slotLookup) {
+        this.slotLookup = slotLookup;
+        this.wheel = new int[WHEEL_SIZE];
+        Arrays.fill(wheel, NONE);
+        this.timersBySlot = new LongIndex(16);
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.currentTick = -1;
+        this.slotKeys = new long[16];
+        this.deadlines = new long[16];
+        this.next = new int[16];
+        this.reasons = new byte[16];
+        this.freeTimers = NONE;
+        this.usedTimers = 0;
+        this.staffMaxStay = null;
+        this.visitorMaxStay = Duration.ofHours(4);
+        this.overnightCutoff = LocalTime.of(2, 0);
+        this.overstayPenaltyCents = 2000;
+    }
+
+    /**
+     * Registers a listener to be told about overstaying cars.
+     *
+     * @param listener The listener to add.
+     */
+    public void addListener(OverstayListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stops a listener from being told about overstaying cars.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeListener(OverstayListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sets the longest time a car may stay in a slot of the given type.
+     * Only affects cars parked after the change and timers set again after an alert.
+     *
+     * @param type The slot type ("staff" or "visitor").
+     * @param maxStay The maximum stay, or null for no limit.
+     */
+    public synchronized void setMaxStay(String type, Duration maxStay) {
+        if ("staff".equalsIgnoreCase(type)) {
+            staffMaxStay = maxStay;
+        } else {
+            visitorMaxStay = maxStay;
+        }
+    }
+
+    /**
+     * Sets the time of day after which a car that is still parked counts as left overnight.
+     * Only affects cars parked after the change and timers set again after an alert.
+     *
+     * @param cutoff The cutoff time, or null to turn off the overnight check.
+     */
+    public synchronized void setOvernightCutoff(LocalTime cutoff) {
+        overnightCutoff = cutoff;
+    }
+
+    /**
+     * Sets the penalty added to the parking fee when a car overstays.
+     *
+     * @param penaltyCents The penalty in cents.
+     */
+    public synchronized void setOverstayPenaltyCents(long penaltyCents) {
+        overstayPenaltyCents = penaltyCents;
+    }
+
+    /**
+     * Starts watching a car that has just been parked. Does nothing if no rule applies to it.
+     *
+     * @param slotKey The key of the slot the car was parked in (see SlotStore.keyOf).
+     * @param type The slot type ("staff" or "visitor").
+     * @param parkedAt When the car was parked.
+     */
+    public synchronized void schedule(long slotKey, String type, LocalDateTime parkedAt) {
+        if (parkedAt == null || slotKey < 0) {
+            return;
+        }
+
+        cancel(slotKey); // A slot only ever has one timer
+        if (currentTick < 0) {
+            currentTick = minuteOf(LocalDateTime.now().toEpochSecond(ZoneOffset.UTC));
+        }
+        armTimer(slotKey, type, parkedAt, parkedAt);
+    }
+
+    /**
+     * Stops watching the car in a slot, e.g. because it has left. Does nothing if no car there is being watched.
+     *
+     * @param slotKey The key of the slot the car was parked in.
+     */
+    public synchronized void cancel(long slotKey) {
+        int timer = timersBySlot.get(slotKey);
+        if (timer != LongIndex.NOT_FOUND) {
+            timersBySlot.remove(slotKey);
+            reasons[timer] = CANCELLED; // Unlinked lazily when its bucket is next processed
+        }
+    }
+
+    /**
+     * Processes every minute up to the given time and tells the listeners about any cars
+     * whose deadline has passed. Meant to be called regularly, e.g. once a minute.
+     *
+     * @param now The current time.
+     * @return The number of overstay alerts that were raised.
+     */
+    public int advanceTo(LocalDateTime now) {
+        List<OverstayAlert> alerts = new ArrayList<>();
+        synchronized (this) {
+            long nowTick = minuteOf(now.toEpochSecond(ZoneOffset.UTC));
+            if (currentTick < 0) {
+                currentTick = nowTick;
+            }
+            // After a long gap every bucket is due, so there is no point going round more than once
+            long steps = Math.min(nowTick - currentTick, WHEEL_SIZE);
+            for (long step = 1; step <= steps; step++) {
+                currentTick++; // Kept up to date so timers set again while catching up go in a bucket still to come
+                expireBucket((int) (currentTick % WHEEL_SIZE), now, nowTick, alerts);
+            }
+            if (nowTick > currentTick) {
+                currentTick = nowTick;
+            }
+        }
+
+        // Tell the listeners outside the lock so they can safely call back into the car park
+        for (OverstayAlert alert : alerts) {
+            for (OverstayListener listener : listeners) {
+                listener.overstayDetected(alert);
+            }
+        }
+        return alerts.size();
+    }
+
+    // Walk one bucket, dropping cancelled timers and firing those that are due by the given tick.
+    // The bucket's list is taken off the wheel first, so timers that are set again can safely go back in.
+    private void expireBucket(int bucket, LocalDateTime now, long nowTick, List<OverstayAlert> alerts) {
+        int timer = wheel[bucket];
+        wheel[bucket] = NONE;
+        while (timer != NONE) {
+            int following = next[timer];
+            if (reasons[timer] == CANCELLED) {
+                freeTimer(timer);
+            } else if (deadlineMinuteOf(deadlines[timer]) <= nowTick) {
+                long slotKey = slotKeys[timer];
+                timersBySlot.remove(slotKey);
+                ParkingSlot slot = slotLookup.apply(slotKey);
+                Car car = (slot == null) ? null : slot.getCar();
+                if (car != null && car.getParkingTime() != null) {
+                    LocalDateTime deadline = LocalDateTime.ofEpochSecond(deadlines[timer], 0, ZoneOffset.UTC);
+                    alerts.add(alertFor(timer, slot, car, deadline));
+                    freeTimer(timer);
+                    armTimer(slotKey, slot.getType(), car.getParkingTime(), now); // Still parked, so watch for the next rule
+                } else {
+                    freeTimer(timer); // The slot was emptied or deleted in the meantime
+                }
+            } else {
+                // Due on a later day, leave it for the next time round
+                next[timer] = wheel[bucket];
+                wheel[bucket] = timer;
+            }
+            timer = following;
+        }
+    }
+
+    // Set a timer for the first rule a car will break after the given time. Does nothing if no rule applies.
+    private void armTimer(long slotKey, String type, LocalDateTime parkedAt, LocalDateTime after) {
+        parkedAt = parkedAt.withNano(0); // Deadlines are kept in whole seconds
+        Duration maxStay = "staff".equalsIgnoreCase(type) ? staffMaxStay : visitorMaxStay;
+        LocalDateTime deadline = null;
+        byte reason = FREE;
+        if (maxStay != null && parkedAt.plus(maxStay).isAfter(after)) {
+            deadline = parkedAt.plus(maxStay);
+            reason = MAX_STAY;
+        }
+        if (overnightCutoff != null) {
+            LocalDateTime cutoff = after.toLocalDate().atTime(overnightCutoff);
+            if (!cutoff.isAfter(after)) {
+                cutoff = cutoff.plusDays(1);
+            }
+            if (deadline == null || cutoff.isBefore(deadline)) {
+                deadline = cutoff;
+                reason = OVERNIGHT;
+            }
+        }
+        if (deadline != null) {
+            addTimer(slotKey, deadline.toEpochSecond(ZoneOffset.UTC), reason);
+        }
+    }
+
+    // Build the alert for a timer that is due, for the car read back from its slot
+    private OverstayAlert alertFor(int timer, ParkingSlot slot, Car car, LocalDateTime deadline) {
+        String reason;
+        if (reasons[timer] == MAX_STAY) {
+            long maxStaySeconds = deadlines[timer] - car.getParkingTime().toEpochSecond(ZoneOffset.UTC);
+            reason = "Exceeded maximum stay of " + maxStaySeconds / 60 + " minutes";
+        } else {
+            reason = "Left overnight past " + deadline.toLocalTime();
+        }
+        double fee = car.getParkingFee() + overstayPenaltyCents / 100.0;
+        return new OverstayAlert(slot.getId(), car, reason, deadline, fee, overstayPenaltyCents);
+    }
+
+    // Hand out a timer and put it in the bucket for its deadline
+    private void addTimer(long slotKey, long deadline, byte reason) {
+        int timer = freeTimers;
+        if (timer != NONE) {
+            freeTimers = next[timer];
+        } else {
+            if (usedTimers == reasons.length) {
+                int capacity = reasons.length * 2;
+                slotKeys = Arrays.copyOf(slotKeys, capacity);
+                deadlines = Arrays.copyOf(deadlines, capacity);
+                next = Arrays.copyOf(next, capacity);
+                reasons = Arrays.copyOf(reasons, capacity);
+            }
+            timer = usedTimers++;
+        }
+        slotKeys[timer] = slotKey;
+        deadlines[timer] = deadline;
+        reasons[timer] = reason;
+        // A deadline that is already due goes in the next bucket to be processed
+        long bucketTick = Math.max(deadlineMinuteOf(deadline), currentTick + 1);
+        int bucket = (int) (bucketTick % WHEEL_SIZE);
+        next[timer] = wheel[bucket];
+        wheel[bucket] = timer;
+        timersBySlot.put(slotKey, timer);
+    }
+
+    // Put a timer that has been unlinked from its bucket back on the free list
+    private void freeTimer(int timer) {
+        reasons[timer] = FREE;
+        next[timer] = freeTimers;
+        freeTimers = timer;
+    }
+
+    // Turn a time in epoch seconds into the whole minute it falls in
+    private static long minuteOf(long epochSecond) {
+        return Math.floorDiv(epochSecond, 60);
+    }
+
+    // Turn a deadline in epoch seconds into a whole minute, rounding up so that alerts never fire early
+    private static long deadlineMinuteOf(long epochSecond) {
+        return Math.floorDiv(epochSecond + 59, 60);
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Tests for ExpiryScheduler, in particular that a car which stays parked after an overstay
+ * alert keeps being watched.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExpirySchedulerTest {
+    private CarPark carPark;
+    private List<OverstayAlert> alerts;
+
+    @Before
+    public void setUp() {
+        carPark = new CarPark(1, 1);
+        alerts = new ArrayList<>();
+        carPark.getExpiryScheduler().addListener(alerts::add);
+    }
+
+    @Test
+    public void carLeftForAWeekIsFlaggedEveryNight() {
+        carPark.parkCar("S01", new Car("S1234", "Staff", true));
+        LocalDateTime parkedAt = carPark.findSlotById("S01").getCar().getParkingTime();
+
+        advanceHourly(parkedAt, 7 * 24);
+
+        assertEquals(7, alerts.size());
+        assertEquals(7 * 2000, carPark.findSlotById("S01").getOverstayPenaltyCents());
+    }
+
+    @Test
+    public void visitorFlaggedForMaxStayIsFlaggedAgainOvernight() {
+        carPark.parkCar("V01", new Car("T1234", "Visitor", false));
+        LocalDateTime parkedAt = carPark.findSlotById("V01").getCar().getParkingTime();
+
+        advanceHourly(parkedAt, 25);
+
+        boolean maxStay = false;
+        boolean overnight = false;
+        for (OverstayAlert alert : alerts) {
+            maxStay |= alert.getReason().startsWith("Exceeded maximum stay");
+            overnight |= alert.getReason().startsWith("Left overnight");
+        }
+        assertTrue(maxStay);
+        assertTrue(overnight);
+    }
+
+    @Test
+    public void carThatLeftIsNotFlagged() {
+        carPark.parkCar("V01", new Car("T1234", "Visitor", false));
+        LocalDateTime parkedAt = carPark.findSlotById("V01").getCar().getParkingTime();
+        carPark.removeCar("T1234");
+
+        advanceHourly(parkedAt, 48);
+
+        assertEquals(0, alerts.size());
+    }
+
+    // Helper to move the scheduler's clock forward an hour at a time
+    private void advanceHourly(LocalDateTime from, int hours) {
+        for (int hour = 1; hour <= hours; hour++) {
+            carPark.getExpiryScheduler().advanceTo(from.plusHours(hour));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * The HeapSlotStore class keeps parking slots as ordinary ParkingSlot objects on the Java heap:
+ * a list in the order the slots were added, and a map from slot ID to slot for quick lookups.
+ * Each slot's key (see keyOf) is its position in a second list, and the positions of removed
+ * slots are handed out again to new ones.
+ * It accepts any slot ID and registration number. This is the store CarPark uses by default.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class HeapSlotStore implements SlotStore {
+    private ArrayList<ParkingSlot> slots; // List that stores all the parking slots
+    private Map<String, Integer> keysById; // Key of each slot by ID, for quick lookups
+    private ArrayList<ParkingSlot> slotsByKey; // Slot with each key (null for keys not in use)
+    private ArrayDeque<Integer> freeKeys; // Keys of removed slots, to be used again
+
+    // Constructor that sets up an empty store with room for the given number of slots
+    public HeapSlotStore(int initialCapacity) {
+        slots = new ArrayList<>(initialCapacity);
+        keysById = new HashMap<>(hashCapacityFor(initialCapacity));
+        slotsByKey = new ArrayList<>(initialCapacity);
+        freeKeys = new ArrayDeque<>();
+    }
+
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    @Override
+    public List<ParkingSlot> asList() {
+        return Collections.unmodifiableList(slots);
+    }
+
+    @Override
+    public ParkingSlot findById(String slotId) {
+        Integer key = keysById.get(slotId);
+        return (key == null) ? null : slotsByKey.get(key);
+    }
+
+    @Override
+    public long keyOf(String slotId) {
+        Integer key = keysById.get(slotId);
+        return (key == null) ? -1 : key;
+    }
+
+    @Override
+    public ParkingSlot findByKey(long key) {
+        return (key < 0 || key >= slotsByKey.size()) ? null : slotsByKey.get((int) key);
+    }
+
+    @Override
+    public ParkingSlot findByCar(String regNumber) {
+        for (ParkingSlot slot : slots) {
+            if (slot.isOccupied() && slot.getCar().getRegNumber().equals(regNumber)) {
+                return slot;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean canStoreSlotId(String slotId) {
+        return true;
+    }
+
+    @Override
+    public boolean canStoreRegNumber(String regNumber) {
+        return true;
+    }
+
+    @Override
+    public void ensureCapacity(int expectedSize) {
+        // Size the list and the index once up front instead of growing them slot by slot
+        slots.ensureCapacity(expectedSize);
+        slotsByKey.ensureCapacity(expectedSize);
+        if (expectedSize > keysById.size() * 2) {
+            Map<String, Integer> resized = new HashMap<>(hashCapacityFor(expectedSize));
+            resized.putAll(keysById);
+            keysById = resized;
+        }
+    }
+
+    @Override
+    public boolean add(ParkingSlot slot) {
+        if (keysById.containsKey(slot.getId())) {
+            return false;
+        }
+        Integer key = freeKeys.poll();
+        if (key == null) {
+            key = slotsByKey.size();
+            slotsByKey.add(slot);
+        } else {
+            slotsByKey.set(key, slot);
+        }
+        keysById.put(slot.getId(), key);
+        slots.add(slot);
+        return true;
+    }
+
+    @Override
+    public boolean remove(String slotId) {
+        Integer key = keysById.remove(slotId);
+        if (key == null) {
+            return false;
+        }
+        slots.remove(slotsByKey.get(key));
+        releaseKey(key);
+        return true;
+    }
+
+    @Override
+    public void removeUnoccupied(Consumer<ParkingSlot> onRemoved) {
+        slots.removeIf(slot -> {
+            if (slot.isOccupied()) {
+                return false;
+            }
+            onRemoved.accept(slot);
+            releaseKey(keysById.remove(slot.getId()));
+            return true;
+        });
+    }
+
+    // Helper to free the key of a removed slot so a new slot can use it
+    private void releaseKey(int key) {
+        slotsByKey.set(key, null);
+        freeKeys.push(key);
+    }
+
+    // Helper to work out a HashMap capacity that holds the given number of slots without resizing
+    private static int hashCapacityFor(int expectedSize) {
+        return (int) (expectedSize / 0.75f) + 1;
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * The LongIndex class maps long keys to non-negative int values, like a HashMap<Long, Integer>
+ * but without creating any objects per entry. It is an open-addressing hash table held in two
+ * primitive arrays: a key is placed in the first free bucket after its home bucket, and removing
+ * a key shifts the following entries back so that lookups never need to skip over deleted ones.
+ *
+ * SlotTable uses it to find rows by packed slot ID, and ExpiryScheduler to find timers by slot key.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import java.util.Arrays;
+
+public class LongIndex {
+
+    public static final int NOT_FOUND = -1; // Returned by get for keys that are not in the index
+
+    private long[] keys; // Key in each bucket
+    private int[] values; // Value in each bucket, or NOT_FOUND if the bucket is empty
+    private int size; // Number of keys in the index
+
+    /**
+     * Constructor to set up an empty index with room for the given number of keys.
+     * The index grows automatically if more keys are added.
+     *
+     * @param expectedSize How many keys to make room for up front.
+     */
+    public LongIndex(int expectedSize) {
+        allocate(expectedSize);
+    }
+
+    // Get the number of keys in the index
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the value of a key.
+     *
+     * @param key The key to look up.
+     * @return The value, or NOT_FOUND if the key is not in the index.
+     */
+    public int get(long key) {
+        int mask = keys.length - 1;
+        for (int bucket = bucketFor(key, mask); values[bucket] != NOT_FOUND; bucket = (bucket + 1) & mask) {
+            if (keys[bucket] == key) {
+                return values[bucket];
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Adds a key, or changes its value if it is already in the index.
+     *
+     * @param key The key.
+     * @param value The value, which must not be negative.
+     */
+    public void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            // Keep the table at most half full so runs of used buckets stay short
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            allocate(size + 1);
+            for (int bucket = 0; bucket < oldKeys.length; bucket++) {
+                if (oldValues[bucket] != NOT_FOUND) {
+                    insert(oldKeys[bucket], oldValues[bucket]);
+                }
+            }
+        }
+        insert(key, value);
+    }
+
+    /**
+     * Removes a key. Does nothing if the key is not in the index.
+     *
+     * @param key The key to remove.
+     */
+    public void remove(long key) {
+        int mask = keys.length - 1;
+        int bucket = bucketFor(key, mask);
+        while (values[bucket] != NOT_FOUND && keys[bucket] != key) {
+            bucket = (bucket + 1) & mask;
+        }
+        if (values[bucket] == NOT_FOUND) {
+            return;
+        }
+        size--;
+        int gap = bucket;
+        for (int next = (gap + 1) & mask; values[next] != NOT_FOUND; next = (next + 1) & mask) {
+            int home = bucketFor(keys[next], mask);
+            // Move the entry into the gap unless its home bucket lies between the gap and its position
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        values[gap] = NOT_FOUND;
+    }
+
+    // Create empty arrays with room for the given number of keys at half load
+    private void allocate(int expectedSize) {
+        int buckets = Integer.highestOneBit(Math.max(16, expectedSize) * 2 - 1) << 1;
+        keys = new long[buckets];
+        values = new int[buckets];
+        Arrays.fill(values, NOT_FOUND);
+        size = 0;
+    }
+
+    private void insert(long key, int value) {
+        int mask = keys.length - 1;
+        int bucket = bucketFor(key, mask);
+        while (values[bucket] != NOT_FOUND && keys[bucket] != key) {
+            bucket = (bucket + 1) & mask;
+        }
+        if (values[bucket] == NOT_FOUND) {
+            size++;
+        }
+        keys[bucket] = key;
+        values[bucket] = value;
+    }
+
+    private static int bucketFor(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Tests for LongIndex, checking it against a HashMap over random puts and removes so that
+ * removal (which shifts later keys back into the gap) and growing are both exercised.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class LongIndexTest {
+
+    @Test
+    public void matchesHashMapOverRandomPutsAndRemoves() {
+        LongIndex index = new LongIndex(1);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(3);
+
+        for (int step = 0; step < 100000; step++) {
+            long key = random.nextInt(5000) * 1024L; // Regular keys, so many share a home bucket
+            if (random.nextBoolean()) {
+                index.put(key, step);
+                expected.put(key, step);
+            } else {
+                index.remove(key);
+                expected.remove(key);
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        for (int i = 0; i < 5000; i++) {
+            long key = i * 1024L;
+            Integer value = expected.get(key);
+            assertEquals(value == null ? LongIndex.NOT_FOUND : value, index.get(key));
+        }
+    }
+
+    @Test
+    public void negativeValuesAreRejected() {
+        try {
+            new LongIndex(4).put(1, LongIndex.NOT_FOUND);
+            throw new AssertionError("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // NOT_FOUND marks empty buckets
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/**
+ * The OccupancyForecaster class predicts how many slots will be free in the coming hours.
+ * It learns from the park and remove events of the car park and keeps a seasonal model
+ * for every slot type (staff or visitor) and every hour of the week (Monday 00:00 to Sunday 23:00).
+ *
+ * While an hour is running, the forecaster adds up how many slots were occupied for how long.
+ * When the hour is over, the time-weighted average occupancy of that hour is blended once into
+ * the bucket for that hour of the week with an exponentially weighted average, so each bucket
+ * averages the same hour across past weeks. Each event and each prediction is constant-time.
+ *
+ * Past data can be added with recordHistoricalHour without touching the live counts, and the
+ * model can be saved to and loaded from a file so it survives a restart.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+public class OccupancyForecaster {
+
+    public static final int HOURS_PER_WEEK = 7 * 24; // Number of seasonal buckets per slot type
+
+    private static final int STAFF = 0; // Model row used for staff slots
+    private static final int VISITOR = 1; // Model row used for visitor slots
+    private static final int MODEL_FILE_MAGIC = 0x4F434646; // "OCFF" marks a saved model file
+
+    private final double smoothing; // Weight given to each finished week of an hour (between 0 and 1)
+    private final double[][] averageOccupied; // Smoothed occupied count per type and hour of week
+    private final boolean[][] observed; // Whether a bucket has at least one finished hour in it
+    private final int[] occupied; // Current number of occupied slots per type
+    private final int[] capacity; // Current number of slots per type
+
+    private final long[] lastEventSecond; // Time of the last event per type, in seconds (-1 before the first event)
+    private final double[] occupiedSeconds; // Occupied slots multiplied by seconds, so far in the current hour
+    private final double[] elapsedSeconds; // Seconds covered so far in the current hour
+
+    /**
+     * Constructor to set up a forecaster with a default smoothing factor of 0.2.
+     */
+    public OccupancyForecaster() {
+        this(0.2);
+    }
+
+    /**
+     * Constructor to set up a forecaster with a custom smoothing factor.
+     * Higher values react faster to recent weeks, lower values give a steadier forecast.
+     *
+     * @param smoothing The weight given to each finished hour, between 0 (exclusive) and 1 (inclusive).
+     */
+    public OccupancyForecaster(double smoothing) {
+        if (smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException("Smoothing factor must be between 0 and 1.");
+        }
+        this.smoothing = smoothing;
+        this.averageOccupied = new double[2][HOURS_PER_WEEK];
+        this.observed = new boolean[2][HOURS_PER_WEEK];
+        this.occupied = new int[2];
+        this.capacity = new int[2];
+        this.lastEventSecond = new long[] {-1, -1};
+        this.occupiedSeconds = new double[2];
+        this.elapsedSeconds = new double[2];
+    }
+
+    /**
+     * Records that a slot of the given type was added to the car park.
+     *
+     * @param type The slot type ("staff" or "visitor").
+     */
+    public synchronized void slotAdded(String type) {
+        capacity[typeIndex(type)]++;
+    }
+
+    /**
+     * Records that an unoccupied slot of the given type was removed from the car park.
+     *
+     * @param type The slot type ("staff" or "visitor").
+     */
+    public synchronized void slotRemoved(String type) {
+        int index = typeIndex(type);
+        if (capacity[index] > 0) {
+            capacity[index]--;
+        }
+    }
+
+    /**
+     * Records that a car was parked in a slot of the given type.
+     *
+     * @param type The slot type ("staff" or "visitor").
+     * @param time The time the car was parked.
+     */
+    public synchronized void recordPark(String type, LocalDateTime time) {
+        int index = typeIndex(type);
+        advanceTo(index, time.toEpochSecond(ZoneOffset.UTC));
+        occupied[index]++;
+    }
+
+    /**
+     * Records that a car left a slot of the given type.
+     *
+     * @param type The slot type ("staff" or "visitor").
+     * @param time The time the car was removed.
+     */
+    public synchronized void recordRemove(String type, LocalDateTime time) {
+        int index = typeIndex(type);
+        advanceTo(index, time.toEpochSecond(ZoneOffset.UTC));
+        if (occupied[index] > 0) {
+            occupied[index]--;
+        }
+    }
+
+    /**
+     * Adds the average occupancy of one past hour to the model, e.g. when seeding it from old records.
+     * This does not change the live occupancy counts.
+     *
+     * @param type The slot type ("staff" or "visitor").
+     * @param hourStart Any time within the past hour.
+     * @param averageOccupied The average number of occupied slots of that type during the hour.
+     */
+    public synchronized void recordHistoricalHour(String type, LocalDateTime hourStart, double averageOccupied) {
+        blend(typeIndex(type), hourOfWeek(hourStart), averageOccupied);
+    }
+
+    /**
+     * Predicts how many slots of the given type will be occupied at the given time.
+     * Falls back to the current occupancy if that hour of the week has not been seen yet.
+     *
+     * @param type The slot type ("staff" or "visitor").
+     * @param time The time to predict for.
+     * @return The expected number of occupied slots.
+     */
+    public synchronized double predictOccupied(String type, LocalDateTime time) {
+        int index = typeIndex(type);
+        int bucket = hourOfWeek(time);
+        if (!observed[index][bucket]) {
+            return occupied[index];
+        }
+        return averageOccupied[index][bucket];
+    }
+
+    /**
+     * Predicts how many slots of the given type will be free at the given time.
+     * The result is rounded to the nearest whole slot and never goes below zero.
+     *
+     * @param type The slot type ("staff" or "visitor").
+     * @param time The time to predict for.
+     * @return The expected number of free slots.
+     */
+    public synchronized int predictFreeSlots(String type, LocalDateTime time) {
+        long free = Math.round(capacity[typeIndex(type)] - predictOccupied(type, time));
+        return (int) Math.max(0, free);
+    }
+
+    /**
+     * Predicts how many slots of the given type will be free a number of hours from now.
+     *
+     * @param type The slot type ("staff" or "visitor").
+     * @param hoursAhead How many hours ahead to look (0 means the current hour).
+     * @return The expected number of free slots.
+     */
+    public int predictFreeSlotsInHours(String type, int hoursAhead) {
+        return predictFreeSlots(type, LocalDateTime.now().plusHours(hoursAhead));
+    }
+
+    /**
+     * Saves the seasonal model (not the live counts) to a file, replacing the file if it exists.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public synchronized void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MODEL_FILE_MAGIC);
+            for (int index = 0; index < 2; index++) {
+                for (int bucket = 0; bucket < HOURS_PER_WEEK; bucket++) {
+                    out.writeBoolean(observed[index][bucket]);
+                    out.writeDouble(averageOccupied[index][bucket]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the seasonal model with one saved earlier by save. The live counts are kept.
+     *
+     * @param file The file to read.
+     * @throws IOException If the file cannot be read or is not a saved model.
+     */
+    public synchronized void load(Path file) throws IOException {
+        boolean[][] loadedObserved = new boolean[2][HOURS_PER_WEEK];
+        double[][] loadedAverages = new double[2][HOURS_PER_WEEK];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MODEL_FILE_MAGIC) {
+                throw new IOException("Not a saved forecast model: " + file);
+            }
+            for (int index = 0; index < 2; index++) {
+                for (int bucket = 0; bucket < HOURS_PER_WEEK; bucket++) {
+                    loadedObserved[index][bucket] = in.readBoolean();
+                    loadedAverages[index][bucket] = in.readDouble();
+                }
+            }
+        }
+        // Only replace the model once the whole file has been read
+        for (int index = 0; index < 2; index++) {
+            System.arraycopy(loadedObserved[index], 0, observed[index], 0, HOURS_PER_WEEK);
+            System.arraycopy(loadedAverages[index], 0, averageOccupied[index], 0, HOURS_PER_WEEK);
+        }
+    }
+
+    // Add the occupancy since the last event to the running hour, closing off every hour that has ended.
+    // Each hour is closed once, so this is constant-time per event when averaged over time.
+    private void advanceTo(int index, long nowSecond) {
+        long last = lastEventSecond[index];
+        if (last < 0 || nowSecond < last) {
+            lastEventSecond[index] = Math.max(last, nowSecond); // First event, or a clock step backwards
+            return;
+        }
+        long hour = last / 3600;
+        long nowHour = nowSecond / 3600;
+        int hoursClosed = 0;
+        while (hour < nowHour && hoursClosed < HOURS_PER_WEEK) {
+            long hourEnd = (hour + 1) * 3600;
+            accumulate(index, hourEnd - last);
+            blend(index, hourOfWeek(hour), occupiedSeconds[index] / elapsedSeconds[index]);
+            occupiedSeconds[index] = 0;
+            elapsedSeconds[index] = 0;
+            last = hourEnd;
+            hour++;
+            hoursClosed++;
+        }
+        if (hour < nowHour) {
+            last = nowHour * 3600; // After more than a week without events every bucket has been updated already
+        }
+        accumulate(index, nowSecond - last);
+        lastEventSecond[index] = nowSecond;
+    }
+
+    private void accumulate(int index, long seconds) {
+        occupiedSeconds[index] += (double) occupied[index] * seconds;
+        elapsedSeconds[index] += seconds;
+    }
+
+    // Blend one finished hour into its hour-of-week bucket
+    private void blend(int index, int bucket, double hourAverage) {
+        if (observed[index][bucket]) {
+            averageOccupied[index][bucket] += smoothing * (hourAverage - averageOccupied[index][bucket]);
+        } else {
+            averageOccupied[index][bucket] = hourAverage; // First sample seeds the bucket
+            observed[index][bucket] = true;
+        }
+    }
+
+    // Work out the hour of the week, from 0 (Monday 00:00) to 167 (Sunday 23:00)
+    private static int hourOfWeek(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * 24 + time.getHour();
+    }
+
+    // Same as above for an hour counted from 1970-01-01 00:00, which was a Thursday
+    private static int hourOfWeek(long epochHour) {
+        long mondayBasedDay = (epochHour / 24 + 3) % 7;
+        return (int) (mondayBasedDay * 24 + epochHour % 24);
+    }
+
+    // Map a slot type to its model row
+    private static int typeIndex(String type) {
+        return "staff".equalsIgnoreCase(type) ? STAFF : VISITOR;
+    }
+}
@@ -0,0 +1,253 @@
+/**
+ * The OffHeapSlotStore class keeps parking slots in a SlotTable outside the Java heap instead of
+ * one ParkingSlot object per slot, so the garbage collector has far less to look through on very
+ * large sites (e.g. a million bays across a city). Use it with new CarPark(staff, visitors, store).
+ *
+ * Code written against ParkingSlot keeps working: the store hands out lightweight ParkingSlot
+ * views that read and write the table directly. Everything about a parked car is kept in the
+ * table; the only per-car data kept on the heap is the owner's name of the rare car whose owner's
+ * name is too long for the table's owner column. A slot's key (see keyOf) is its packed slot ID.
+ *
+ * Slot IDs and registration numbers must fit the SlotTable packing rules (see SlotTable.canEncode),
+ * and are stored in upper case.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class OffHeapSlotStore implements SlotStore {
+    private SlotTable table; // Off-heap state of every slot
+    private Map<Long, String> longOwnersBySlot; // Owner's names too long for the table, keyed by packed slot ID
+
+    // Constructor that sets up an empty store with room for the given number of slots
+    public OffHeapSlotStore(int initialCapacity) {
+        table = new SlotTable(initialCapacity);
+        longOwnersBySlot = new HashMap<>();
+    }
+
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    @Override
+    public List<ParkingSlot> asList() {
+        // Each element is created on demand
+        return new AbstractList<ParkingSlot>() {
+            @Override
+            public ParkingSlot get(int index) {
+                if (index < 0 || index >= table.size()) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + table.size());
+                }
+                return new SlotView(table.getSlotId(index), table.getType(index));
+            }
+
+            @Override
+            public int size() {
+                return table.size();
+            }
+        };
+    }
+
+    @Override
+    public ParkingSlot findById(String slotId) {
+        if (!SlotTable.canEncode(slotId)) {
+            return null;
+        }
+        int row = table.findRow(SlotTable.encode(slotId));
+        return (row < 0) ? null : new SlotView(table.getSlotId(row), table.getType(row));
+    }
+
+    @Override
+    public long keyOf(String slotId) {
+        if (!SlotTable.canEncode(slotId)) {
+            return -1;
+        }
+        long packedId = SlotTable.encode(slotId);
+        return (table.findRow(packedId) < 0) ? -1 : packedId;
+    }
+
+    @Override
+    public ParkingSlot findByKey(long key) {
+        int row = table.findRow(key);
+        return (row < 0) ? null : new SlotView(table.getSlotId(row), table.getType(row));
+    }
+
+    @Override
+    public ParkingSlot findByCar(String regNumber) {
+        if (!SlotTable.canEncode(regNumber)) {
+            return null;
+        }
+        int row = table.findRowByCar(SlotTable.encode(regNumber));
+        return (row < 0) ? null : new SlotView(table.getSlotId(row), table.getType(row));
+    }
+
+    @Override
+    public boolean canStoreSlotId(String slotId) {
+        return SlotTable.canEncode(slotId);
+    }
+
+    @Override
+    public boolean canStoreRegNumber(String regNumber) {
+        return SlotTable.canEncode(regNumber);
+    }
+
+    @Override
+    public void ensureCapacity(int expectedSize) {
+        // The table grows by doubling, which is already cheap enough for a single large batch
+    }
+
+    @Override
+    public boolean add(ParkingSlot slot) {
+        long slotId = SlotTable.encode(slot.getId());
+        if (table.findRow(slotId) >= 0) {
+            return false;
+        }
+        table.addRow(slotId, "staff".equalsIgnoreCase(slot.getType()) ? SlotTable.STAFF : SlotTable.VISITOR);
+        return true;
+    }
+
+    @Override
+    public boolean remove(String slotId) {
+        if (!SlotTable.canEncode(slotId)) {
+            return false;
+        }
+        long packedId = SlotTable.encode(slotId);
+        int row = table.findRow(packedId);
+        if (row < 0) {
+            return false;
+        }
+        longOwnersBySlot.remove(packedId);
+        table.removeRow(row);
+        return true;
+    }
+
+    @Override
+    public void removeUnoccupied(Consumer<ParkingSlot> onRemoved) {
+        int row = 0;
+        while (row < table.size()) {
+            if (table.isOccupied(row)) {
+                row++;
+            } else {
+                onRemoved.accept(new SlotView(table.getSlotId(row), table.getType(row)));
+                table.removeRow(row); // The last row moves here, so check this row again
+            }
+        }
+    }
+
+    private static String typeName(byte typeCode) {
+        return typeCode == SlotTable.STAFF ? "staff" : "visitor";
+    }
+
+    /**
+     * A ParkingSlot that reads and writes its state in the slot table. It looks its row up by
+     * slot ID on every call, so it stays correct when other slots are added or deleted.
+     * Each call to getCar builds a new Car from the table.
+     */
+    private class SlotView extends ParkingSlot {
+        private final long packedId; // Packed slot ID used to find the row
+
+        private SlotView(long packedId, byte typeCode) {
+            super(SlotTable.decode(packedId), typeName(typeCode));
+            this.packedId = packedId;
+        }
+
+        @Override
+        public boolean isOccupied() {
+            int row = table.findRow(packedId);
+            return row >= 0 && table.isOccupied(row);
+        }
+
+        @Override
+        public Car getCar() {
+            int row = table.findRow(packedId);
+            if (row < 0 || !table.isOccupied(row)) {
+                return null;
+            }
+            String owner = table.getOwner(row);
+            if (owner == null) {
+                owner = longOwnersBySlot.get(packedId);
+            }
+            Car car = new Car(SlotTable.decode(table.getCarId(row)), owner, table.getType(row) == SlotTable.STAFF);
+            car.setParkingTime(LocalDateTime.ofEpochSecond(table.getEntryEpoch(row), 0, ZoneOffset.UTC));
+            return car;
+        }
+
+        @Override
+        public void parkCar(Car car) {
+            int row = table.findRow(packedId);
+            if (row < 0) {
+                return;
+            }
+            car.setParkingTime(LocalDateTime.now());
+            table.occupy(row, SlotTable.encode(car.getRegNumber()), car.getParkingTime().toEpochSecond(ZoneOffset.UTC));
+            longOwnersBySlot.remove(packedId);
+            if (!table.setOwner(row, car.getOwner())) {
+                longOwnersBySlot.put(packedId, car.getOwner());
+            }
+            System.out.println("Car parked at: " + car.getParkingTime().format(SlotStatusView.TIME_FORMAT));
+        }
+
+        @Override
+        public void removeCar() {
+            int row = table.findRow(packedId);
+            if (row >= 0 && table.isOccupied(row)) {
+                longOwnersBySlot.remove(packedId);
+                table.vacate(row);
+            }
+        }
+
+        @Override
+        public long getParkingDurationInSeconds() {
+            int row = table.findRow(packedId);
+            if (row < 0 || !table.isOccupied(row)) {
+                return 0;
+            }
+            return LocalDateTime.now().toEpochSecond(ZoneOffset.UTC) - table.getEntryEpoch(row);
+        }
+
+        @Override
+        public long getOverstayPenaltyCents() {
+            int row = table.findRow(packedId);
+            return (row < 0 || !table.isOccupied(row)) ? 0 : table.getPenaltyCents(row);
+        }
+
+        @Override
+        public void addOverstayPenaltyCents(long cents) {
+            int row = table.findRow(packedId);
+            if (row >= 0 && table.isOccupied(row)) {
+                table.setPenaltyCents(row, table.getPenaltyCents(row) + cents);
+            }
+        }
+
+        @Override
+        public LocalDateTime getBilledUpTo() {
+            int row = table.findRow(packedId);
+            if (row < 0 || !table.isOccupied(row) || table.getBilledUpToEpoch(row) == 0) {
+                return null;
+            }
+            return LocalDateTime.ofEpochSecond(table.getBilledUpToEpoch(row), 0, ZoneOffset.UTC);
+        }
+
+        @Override
+        public void setBilledUpTo(LocalDateTime billedUpTo) {
+            int row = table.findRow(packedId);
+            if (row >= 0 && table.isOccupied(row)) {
+                table.setBilledUpToEpoch(row, (billedUpTo == null) ? 0 : billedUpTo.toEpochSecond(ZoneOffset.UTC));
+            }
+        }
+
+        @Override
+        public SlotStatusView getStatusView() {
+            return new SlotStatusView(this); // Other views of the same row may change it, so never reuse cached text
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * The OverstayAlert class describes a car that has stayed longer than it is allowed to.
+ * It is created by the ExpiryScheduler and handed to every registered OverstayListener.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import java.time.LocalDateTime;
+
+public class OverstayAlert {
+
+    private final String slotId; // The slot the car is parked in
+    private final Car car; // The car that has overstayed
+    private final String reason; // Why the car is overstaying (maximum stay or overnight)
+    private final LocalDateTime deadline; // When the car should have left
+    private final double fee; // Parking fee so far plus the overstay penalty, in dollars
+    private final long penaltyCents; // The overstay penalty on its own, in cents
+
+    /**
+     * Constructor to set up an alert for an overstaying car.
+     *
+     * @param slotId The ID of the slot the car is parked in.
+     * @param car The car that has overstayed.
+     * @param reason A short description of why the car is overstaying.
+     * @param deadline The time the car should have left by.
+     * @param fee The parking fee so far plus the overstay penalty, in dollars.
+     * @param penaltyCents The overstay penalty on its own, in cents.
+     */
+    public OverstayAlert(String slotId, Car car, String reason, LocalDateTime deadline, double fee, long penaltyCents) {
+        this.slotId = slotId;
+        this.car = car;
+        this.reason = reason;
+        this.deadline = deadline;
+        this.fee = fee;
+        this.penaltyCents = penaltyCents;
+    }
+
+    // Get the ID of the slot the car is parked in
+    public String getSlotId() {
+        return slotId;
+    }
+
+    // Get the car that has overstayed
+    public Car getCar() {
+        return car;
+    }
+
+    // Get the reason the car is overstaying
+    public String getReason() {
+        return reason;
+    }
+
+    // Get the time the car should have left by
+    public LocalDateTime getDeadline() {
+        return deadline;
+    }
+
+    // Get the parking fee so far plus the overstay penalty, in dollars
+    public double getFee() {
+        return fee;
+    }
+
+    // Get the overstay penalty on its own, in cents (the car park adds it to the car's bill)
+    public long getPenaltyCents() {
+        return penaltyCents;
+    }
+
+    // Return a one-line summary of the alert
+    @Override
+    public String toString() {
+        return "Overstay in slot " + slotId + ": " + car.getRegNumber() + " (Owner: " + car.getOwner() + "), " +
+               reason + ", Fee: $" + fee;
+    }
+}
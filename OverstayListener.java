@@ -0,0 +1,17 @@
+/**
+ * The OverstayListener interface is implemented by anything that wants to hear about
+ * overstaying cars, such as the GUI or an enforcement staff notifier.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+public interface OverstayListener {
+
+    /**
+     * Called once for each car that passes its maximum stay or overnight deadline.
+     *
+     * @param alert Details about the overstaying car and the fee due.
+     */
+    void overstayDetected(OverstayAlert alert);
+}
@@ -0,0 +1,89 @@
+/**
+ * The ParkingSession class records one stay of a car in a slot: which slot, which car,
+ * when it arrived and left, and any overstay penalties charged during the stay.
+ * Sessions that are still going on have no end time. A stay that runs past a close-of-day billing
+ * run remembers how far it has been billed, so the next run only charges the rest.
+ * The car park keeps completed sessions so they can be billed at the end of the day.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import java.time.LocalDateTime;
+
+public class ParkingSession {
+
+    private final String slotId; // The slot the car was parked in
+    private final String regNumber; // The car's registration number
+    private final String owner; // The owner's name
+    private final boolean isStaff; // true if it was a staff car
+    private final LocalDateTime start; // When the car was parked
+    private final LocalDateTime end; // When the car left (null if it is still parked)
+    private final long penaltyCents; // Overstay penalties not billed yet, in cents
+    private final LocalDateTime billedUpTo; // How far the stay was billed by earlier runs (null if never billed)
+
+    /**
+     * Constructor to record a stay of a car in a slot.
+     *
+     * @param slotId The ID of the slot the car was parked in.
+     * @param car The car, with its parking time set.
+     * @param end When the car left, or null if it is still parked.
+     * @param penaltyCents Overstay penalties not billed yet, in cents.
+     * @param billedUpTo How far the stay was billed by earlier runs, or null if it was never billed.
+     */
+    public ParkingSession(String slotId, Car car, LocalDateTime end, long penaltyCents, LocalDateTime billedUpTo) {
+        this.slotId = slotId;
+        this.regNumber = car.getRegNumber();
+        this.owner = car.getOwner();
+        this.isStaff = car.isStaff();
+        this.start = car.getParkingTime();
+        this.end = end;
+        this.penaltyCents = penaltyCents;
+        this.billedUpTo = billedUpTo;
+    }
+
+    // Get the ID of the slot the car was parked in
+    public String getSlotId() {
+        return slotId;
+    }
+
+    // Get the car's registration number
+    public String getRegNumber() {
+        return regNumber;
+    }
+
+    // Get the owner's name
+    public String getOwner() {
+        return owner;
+    }
+
+    // Check if it was a staff car
+    public boolean isStaff() {
+        return isStaff;
+    }
+
+    // Get the time the car was parked
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    // Get the time the car left (null if it is still parked)
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    // Get the overstay penalties not billed yet, in cents
+    public long getPenaltyCents() {
+        return penaltyCents;
+    }
+
+    // Get how far the stay was billed by earlier runs (null if it was never billed)
+    public LocalDateTime getBilledUpTo() {
+        return billedUpTo;
+    }
+
+    // Check if the car is still parked
+    public boolean isActive() {
+        return end == null;
+    }
+}
@@ -9,13 +9,15 @@
  */
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 public class ParkingSlot {
     
     private String id; // Unique ID for this parking slot
     private String type; // Type of slot (either "staff" or "visitor")
     private Car car; // The car parked in this slot (null if empty)
+    private SlotStatusView statusView; // Cached status text, created when first needed
+    private long overstayPenaltyCents; // Overstay penalties charged to the car parked here, in cents
+    private LocalDateTime billedUpTo; // When the car parked here was last billed up to (null if never billed)
 
     // Constructor to set up a parking slot with its ID and type
     public ParkingSlot(String id, String type) {
@@ -44,17 +46,57 @@ public class ParkingSlot {
         return car;
     }
 
+    // Get the cached status text of this slot, used for listings and the GUI
+    public SlotStatusView getStatusView() {
+        if (statusView == null) {
+            statusView = new SlotStatusView(this);
+        }
+        return statusView;
+    }
+
+    // Get the overstay penalties charged to the car parked here so far, in cents
+    public long getOverstayPenaltyCents() {
+        return overstayPenaltyCents;
+    }
+
+    // Charge an overstay penalty to the car parked here (it is billed when the stay is billed)
+    public void addOverstayPenaltyCents(long cents) {
+        overstayPenaltyCents += cents;
+        if (statusView != null) {
+            statusView.invalidate(); // The cached fee no longer matches
+        }
+    }
+
+    // Get the time the car parked here has been billed up to by a close-of-day run (null if never billed)
+    public LocalDateTime getBilledUpTo() {
+        return billedUpTo;
+    }
+
+    // Record that the car parked here has been billed up to the given time
+    public void setBilledUpTo(LocalDateTime billedUpTo) {
+        this.billedUpTo = billedUpTo;
+    }
+
     // Park a car in this slot and record the time it was parked
     public void parkCar(Car car) {
         this.car = car;
+        this.overstayPenaltyCents = 0;
+        this.billedUpTo = null;
         this.car.setParkingTime(LocalDateTime.now()); // Save the current time when the car is parked
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        System.out.println("Car parked at: " + car.getParkingTime().format(formatter)); // Print the parking time
+        if (statusView != null) {
+            statusView.invalidate(); // The cached status no longer matches
+        }
+        System.out.println("Car parked at: " + car.getParkingTime().format(SlotStatusView.TIME_FORMAT)); // Print the parking time
     }
 
     // Remove the car from this slot, making it available again
     public void removeCar() {
         this.car = null;
+        this.overstayPenaltyCents = 0;
+        this.billedUpTo = null;
+        if (statusView != null) {
+            statusView.invalidate(); // The cached status no longer matches
+        }
     }
     
     // Calculate how long the car has been parked (in seconds)
@@ -68,28 +110,19 @@ public class ParkingSlot {
 
     /**
      * Calculate the parking fee based on how long the car has been parked.
-     * Charges $5 per hour, rounding up for any part of an hour.
+     * Charges $5 per hour, rounding up for any part of an hour, plus any overstay penalties.
      * Returns the total fee.
      */
     public double calculateParkingFee() {
         long durationInSeconds = getParkingDurationInSeconds();
         long hours = (durationInSeconds + 3599) / 3600; // Round up to the next hour
-        return hours * 5.0; // $5 per hour
+        return hours * 5.0 + getOverstayPenaltyCents() / 100.0; // $5 per hour plus penalties
     }
     
-    // Return a summary of this slot’s status, including any parked car, how long it’s been parked, and the fee
+    // Return a summary of this slot’s status, including any parked car, how long it’s been parked, and the fee.
+    // The text is cached and rebuilt whenever the shown minutes or fee change (see SlotStatusView).
     @Override
     public String toString() {
-        if (!isOccupied()) {
-            return "Slot ID: " + id + ", Type: " + type + ", Status: Unoccupied";
-        } else {
-            long totalDurationInSeconds = getParkingDurationInSeconds();
-            long hours = totalDurationInSeconds / 3600;
-            long minutes = (totalDurationInSeconds % 3600) / 60;
-            long seconds = totalDurationInSeconds % 60;
-            double fee = calculateParkingFee();
-            return "Slot ID: " + id + ", Type: " + type + ", Status: Occupied by " + car.getRegNumber() +
-                   " (Owner: " + car.getOwner() + "), Parked for: " + hours + " hours " + minutes + " minutes " + seconds + " seconds, Fee: $" + fee;
-        }
+        return getStatusView().getListingText();
     }
 }
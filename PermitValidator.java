@@ -0,0 +1,262 @@
+/**
+ * The PermitValidator class checks cars at the gate before they are given a slot.
+ * A car that claims to be a staff car must be on the staff permit list, and a car on the
+ * blocked plate list is never let in.
+ *
+ * Both lists are read from plain text files (one registration number per line, blank lines and
+ * lines starting with '#' are ignored) and can hold hundreds of thousands of entries. Each list
+ * is kept as a Bloom filter in front of a sorted array: most plates are rejected by the filter
+ * alone, and only filter hits are confirmed with a binary search.
+ *
+ * Each list is loaded on its own, and a file that goes missing or cannot be read later keeps the
+ * list loaded before. Until the staff permit list has been loaded, every car that claims to be a
+ * staff car is refused, so a missing file never lets cars in as staff (this can be changed with
+ * setRefuseStaffWithoutPermitList). Until the blocked plate list has been loaded, that check is off. reloadIfChanged only rereads the files when
+ * they have been modified, so it is cheap to call every few minutes.
+ *
+ * Reloading builds the new lists on the side and then swaps them in with a single write, so
+ * checks running at the same time always see either the old lists or the new ones, never a mix.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+public class PermitValidator {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01; // Share of unknown plates that need the exact check
+
+    private volatile Lists current; // The lists in use, replaced as a whole on reload (null means that list was never loaded)
+    private volatile boolean refuseStaffWithoutPermitList; // Whether staff cars are refused while no staff permit list is loaded
+    private Path staffPermitFile; // Where the staff permit list is loaded from
+    private Path blockedPlateFile; // Where the blocked plate list is loaded from
+    private FileTime staffPermitModified; // Modification time of the staff permit file when it was last loaded
+    private FileTime blockedPlateModified; // Modification time of the blocked plate file when it was last loaded
+
+    /**
+     * Constructor to set up a validator for the given list files. Nothing is loaded yet, so staff
+     * cars are refused and the blocked plate check is off until reload (or load) has been called.
+     *
+     * @param staffPermitFile The file listing registration numbers with a staff permit.
+     * @param blockedPlateFile The file listing registration numbers that may not enter.
+     */
+    public PermitValidator(Path staffPermitFile, Path blockedPlateFile) {
+        this.staffPermitFile = staffPermitFile;
+        this.blockedPlateFile = blockedPlateFile;
+        this.current = new Lists(null, null);
+        this.refuseStaffWithoutPermitList = true;
+    }
+
+    /**
+     * Sets what happens to cars that claim to be staff cars while no staff permit list is loaded.
+     * By default they are refused; letting them in instead means anyone can park as staff.
+     *
+     * @param refuse true to refuse them (the default), false to let them in.
+     */
+    public void setRefuseStaffWithoutPermitList(boolean refuse) {
+        this.refuseStaffWithoutPermitList = refuse;
+    }
+
+    // Check whether cars that claim to be staff cars are refused while no staff permit list is loaded
+    public boolean isRefusingStaffWithoutPermitList() {
+        return refuseStaffWithoutPermitList;
+    }
+
+    /**
+     * Switches to new staff permit and blocked plate files and loads them (see reload).
+     *
+     * @param staffPermitFile The file listing registration numbers with a staff permit.
+     * @param blockedPlateFile The file listing registration numbers that may not enter.
+     * @throws IOException If either file exists but cannot be read.
+     */
+    public synchronized void load(Path staffPermitFile, Path blockedPlateFile) throws IOException {
+        this.staffPermitFile = staffPermitFile;
+        this.blockedPlateFile = blockedPlateFile;
+        this.staffPermitModified = null;
+        this.blockedPlateModified = null;
+        reload();
+    }
+
+    /**
+     * Loads both lists again from their files and swaps them in.
+     * Each list is loaded on its own: if one file is missing or cannot be read, the list loaded
+     * from it before is kept (or its check stays off if it was never loaded), and the other list
+     * is still updated.
+     *
+     * @throws IOException If either file exists but cannot be read (after the other list has been updated).
+     */
+    public synchronized void reload() throws IOException {
+        PlateList staffPermits = current.staffPermits;
+        PlateList blockedPlates = current.blockedPlates;
+        IOException failure = null;
+
+        if (Files.exists(staffPermitFile)) {
+            try {
+                FileTime modified = Files.getLastModifiedTime(staffPermitFile);
+                staffPermits = PlateList.read(staffPermitFile);
+                staffPermitModified = modified;
+            } catch (IOException e) {
+                failure = e;
+            }
+        } else {
+            System.out.println("Staff permit file " + staffPermitFile + " not found, keeping the current list.");
+        }
+
+        if (Files.exists(blockedPlateFile)) {
+            try {
+                FileTime modified = Files.getLastModifiedTime(blockedPlateFile);
+                blockedPlates = PlateList.read(blockedPlateFile);
+                blockedPlateModified = modified;
+            } catch (IOException e) {
+                failure = e;
+            }
+        } else {
+            System.out.println("Blocked plate file " + blockedPlateFile + " not found, keeping the current list.");
+        }
+
+        current = new Lists(staffPermits, blockedPlates);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Reloads the lists if either file has been created or modified since it was last loaded.
+     * Meant to be called regularly, e.g. every few minutes.
+     *
+     * @return true if the lists were reloaded, false if nothing had changed.
+     * @throws IOException If a changed file cannot be read.
+     */
+    public synchronized boolean reloadIfChanged() throws IOException {
+        if (!hasChanged(staffPermitFile, staffPermitModified) && !hasChanged(blockedPlateFile, blockedPlateModified)) {
+            return false;
+        }
+        reload();
+        return true;
+    }
+
+    // Check whether a staff permit list has been loaded (if not, see isRefusingStaffWithoutPermitList)
+    public boolean isStaffPermitCheckOn() {
+        return current.staffPermits != null;
+    }
+
+    // Check whether the blocked plate check is on, i.e. a blocked plate list has been loaded
+    public boolean isBlockedPlateCheckOn() {
+        return current.blockedPlates != null;
+    }
+
+    /**
+     * Checks whether a car may enter.
+     *
+     * @param car The car at the gate.
+     * @return null if the car may enter, otherwise a message explaining why it may not.
+     */
+    public String checkAdmission(Car car) {
+        Lists lists = current; // Read once so both checks use the same lists
+        String plate = normalise(car.getRegNumber());
+        if (lists.blockedPlates != null && lists.blockedPlates.contains(plate)) {
+            return "Car " + car.getRegNumber() + " is on the blocked list.";
+        }
+        if (car.isStaff() && lists.staffPermits == null && refuseStaffWithoutPermitList) {
+            return "Car " + car.getRegNumber() + " cannot enter as staff: the staff permit list is not loaded.";
+        }
+        if (car.isStaff() && lists.staffPermits != null && !lists.staffPermits.contains(plate)) {
+            return "Car " + car.getRegNumber() + " does not have a staff permit.";
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a registration number is on the staff permit list.
+     *
+     * @param regNumber The registration number to check.
+     * @return true if it has a staff permit, false otherwise (or if no list has been loaded).
+     */
+    public boolean hasStaffPermit(String regNumber) {
+        PlateList staffPermits = current.staffPermits;
+        return staffPermits != null && staffPermits.contains(normalise(regNumber));
+    }
+
+    /**
+     * Checks whether a registration number is on the blocked plate list.
+     *
+     * @param regNumber The registration number to check.
+     * @return true if it is blocked, false otherwise (or if no list has been loaded).
+     */
+    public boolean isBlocked(String regNumber) {
+        PlateList blockedPlates = current.blockedPlates;
+        return blockedPlates != null && blockedPlates.contains(normalise(regNumber));
+    }
+
+    // Registration numbers are compared without surrounding spaces and ignoring case
+    private static String normalise(String regNumber) {
+        return regNumber.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Check whether a file exists and was modified after the given load time (null = never loaded)
+    private static boolean hasChanged(Path file, FileTime loaded) throws IOException {
+        return Files.exists(file) && !Files.getLastModifiedTime(file).equals(loaded);
+    }
+
+    // The two lists that are swapped together on reload (null means that list was never loaded)
+    private static class Lists {
+        private final PlateList staffPermits;
+        private final PlateList blockedPlates;
+
+        private Lists(PlateList staffPermits, PlateList blockedPlates) {
+            this.staffPermits = staffPermits;
+            this.blockedPlates = blockedPlates;
+        }
+    }
+
+    // One list of registration numbers: a Bloom filter for fast misses, backed by a sorted array
+    private static class PlateList {
+        private final BloomFilter filter;
+        private final String[] sortedPlates;
+
+        private PlateList(String[] sortedPlates) {
+            this.sortedPlates = sortedPlates;
+            this.filter = new BloomFilter(sortedPlates.length, FALSE_POSITIVE_RATE);
+            for (String plate : sortedPlates) {
+                filter.add(plate);
+            }
+        }
+
+        private boolean contains(String plate) {
+            return filter.mightContain(plate) && Arrays.binarySearch(sortedPlates, plate) >= 0;
+        }
+
+        // Read a list file, then sort it and drop duplicates
+        private static PlateList read(Path file) throws IOException {
+            List<String> plates = new ArrayList<>();
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String plate = normalise(line);
+                    if (!plate.isEmpty() && !plate.startsWith("#")) {
+                        plates.add(plate);
+                    }
+                }
+            }
+            String[] sorted = plates.toArray(new String[0]);
+            Arrays.sort(sorted);
+            int unique = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (unique == 0 || !sorted[i].equals(sorted[unique - 1])) {
+                    sorted[unique++] = sorted[i];
+                }
+            }
+            return new PlateList(Arrays.copyOf(sorted, unique));
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ * The SlotLayout class loads and saves the slot topology of a whole site in one go.
+ * Two file formats are supported:
+ * - CSV: a header line "id,type" followed by one "S001,staff" style line per slot.
+ * - Binary: a compact format with a small header, then one type byte and one ID string per slot.
+ * It also holds the rules for what a valid slot ID looks like.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SlotLayout {
+
+    private static final String CSV_HEADER = "id,type"; // First line of every CSV layout file
+    private static final int BINARY_MAGIC = 0x43504C59; // "CPLY" marks a binary layout file
+    private static final int BINARY_VERSION = 1; // Current binary layout format version
+    private static final int BINARY_HEADER_BYTES = 12; // Magic, version and slot count
+    private static final int MIN_BINARY_RECORD_BYTES = 6; // Type byte, 2-byte length and an ID of at least 3 characters
+    private static final int MAX_ZONE_LENGTH = 4; // Longest zone prefix allowed before the '-'
+    // Longest slot ID, kept equal to the packing limit so every valid ID also fits the off-heap slot table
+    public static final int MAX_SLOT_ID_LENGTH = SlotTable.MAX_PACKED_LENGTH;
+
+    private SlotLayout() {
+        // Only static helpers, so no instances are needed
+    }
+
+    /**
+     * Checks whether a slot ID is valid for the given slot type.
+     * Staff IDs look like "S01", "S1234" or "B2-S001": an optional zone prefix of up to four
+     * upper-case letters or digits followed by '-', then 'S' and at least two digits.
+     * Visitor IDs have the same shape with a 'V' instead of an 'S'. IDs are at most 11 characters long.
+     *
+     * @param slotId The slot ID to check (e.g. "S01" or "B2-V0042").
+     * @param type The slot type ("staff" or "visitor").
+     * @return true if the ID matches the format for that type, false otherwise.
+     */
+    public static boolean isValidSlotId(String slotId, String type) {
+        if (slotId == null || type == null || slotId.length() > MAX_SLOT_ID_LENGTH) {
+            return false;
+        }
+        char prefix;
+        if (type.equalsIgnoreCase("staff")) {
+            prefix = 'S';
+        } else if (type.equalsIgnoreCase("visitor")) {
+            prefix = 'V';
+        } else {
+            return false;
+        }
+
+        // Skip the optional zone prefix (checked by hand, as this runs once per slot during bulk loads)
+        int start = 0;
+        int dash = slotId.indexOf('-');
+        if (dash >= 0) {
+            if (dash == 0 || dash > MAX_ZONE_LENGTH) {
+                return false;
+            }
+            for (int i = 0; i < dash; i++) {
+                char c = slotId.charAt(i);
+                if (!((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                    return false;
+                }
+            }
+            start = dash + 1;
+        }
+
+        // Then the type letter followed by at least two digits
+        if (slotId.length() - start < 3 || slotId.charAt(start) != prefix) {
+            return false;
+        }
+        for (int i = start + 1; i < slotId.length(); i++) {
+            char c = slotId.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a CSV layout file.
+     *
+     * @param file The CSV file to read.
+     * @return The slots described by the file, in file order.
+     * @throws IOException If the file cannot be read or contains an invalid line.
+     */
+    public static List<ParkingSlot> readCsv(Path file) throws IOException {
+        List<ParkingSlot> slots = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line == null || !line.trim().equalsIgnoreCase(CSV_HEADER)) {
+                throw new IOException("Layout file must start with the header '" + CSV_HEADER + "'.");
+            }
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue; // Allow blank lines, e.g. at the end of the file
+                }
+                int comma = line.indexOf(',');
+                if (comma < 0) {
+                    throw new IOException("Line " + lineNumber + " must have the form 'id,type'.");
+                }
+                String slotId = line.substring(0, comma).trim();
+                String type = canonicalType(line.substring(comma + 1).trim());
+                if (type == null || !isValidSlotId(slotId, type)) {
+                    throw new IOException("Line " + lineNumber + " has an invalid slot: " + line);
+                }
+                slots.add(new ParkingSlot(slotId, type));
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Writes slots to a CSV layout file, replacing the file if it exists.
+     *
+     * @param file The CSV file to write.
+     * @param slots The slots to save.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeCsv(Path file, List<ParkingSlot> slots) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(CSV_HEADER);
+            writer.newLine();
+            for (ParkingSlot slot : slots) {
+                writer.write(slot.getId());
+                writer.write(',');
+                writer.write(slot.getType());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Reads a binary layout file.
+     *
+     * @param file The binary file to read.
+     * @return The slots described by the file, in file order.
+     * @throws IOException If the file cannot be read or is not a valid layout file.
+     */
+    public static List<ParkingSlot> readBinary(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != BINARY_MAGIC) {
+                throw new IOException("Not a binary layout file: " + file);
+            }
+            int version = in.readInt();
+            if (version != BINARY_VERSION) {
+                throw new IOException("Unsupported layout file version: " + version);
+            }
+            int count = in.readInt();
+            // Check the count against the file size so a corrupt header cannot ask for a huge list
+            long maxCount = (Files.size(file) - BINARY_HEADER_BYTES) / MIN_BINARY_RECORD_BYTES;
+            if (count < 0 || count > maxCount) {
+                throw new IOException("Layout file says it has " + count + " slots, but it is too short for that.");
+            }
+            List<ParkingSlot> slots = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte typeCode = in.readByte();
+                String slotId = in.readUTF();
+                String type = (typeCode == 0) ? "staff" : (typeCode == 1) ? "visitor" : null;
+                if (type == null || !isValidSlotId(slotId, type)) {
+                    throw new IOException("Slot " + (i + 1) + " in the layout file is invalid: " + slotId);
+                }
+                slots.add(new ParkingSlot(slotId, type));
+            }
+            return slots;
+        }
+    }
+
+    /**
+     * Writes slots to a binary layout file, replacing the file if it exists.
+     *
+     * @param file The binary file to write.
+     * @param slots The slots to save.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeBinary(Path file, List<ParkingSlot> slots) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(BINARY_MAGIC);
+            out.writeInt(BINARY_VERSION);
+            out.writeInt(slots.size());
+            for (ParkingSlot slot : slots) {
+                out.writeByte(slot.getType().equalsIgnoreCase("staff") ? 0 : 1);
+                out.writeUTF(slot.getId());
+            }
+        }
+    }
+
+    // Map a type string from a file to the lower-case names used by the rest of the system
+    private static String canonicalType(String type) {
+        if (type.equalsIgnoreCase("staff")) {
+            return "staff";
+        } else if (type.equalsIgnoreCase("visitor")) {
+            return "visitor";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Tests for SlotLayout: saving and loading layouts in both file formats, rejecting damaged
+ * files, and the slot ID rules.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SlotLayoutTest {
+    private List<ParkingSlot> layout;
+
+    @Before
+    public void setUp() {
+        layout = new ArrayList<>();
+        layout.add(new ParkingSlot("S01", "staff"));
+        layout.add(new ParkingSlot("V1234", "visitor"));
+        layout.add(new ParkingSlot("B2-S001", "staff"));
+        layout.add(new ParkingSlot("ZONE-V00042", "visitor"));
+    }
+
+    @Test
+    public void csvRoundTrip() throws IOException {
+        Path file = Files.createTempFile("layout", ".csv");
+        try {
+            SlotLayout.writeCsv(file, layout);
+            assertSameSlots(layout, SlotLayout.readCsv(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void binaryRoundTrip() throws IOException {
+        Path file = Files.createTempFile("layout", ".bin");
+        try {
+            SlotLayout.writeBinary(file, layout);
+            assertSameSlots(layout, SlotLayout.readBinary(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void binaryFileWithOversizedCountIsRejected() throws IOException {
+        Path file = Files.createTempFile("layout", ".bin");
+        try {
+            // A valid header that claims far more slots than the file holds
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+                out.writeInt(0x43504C59);
+                out.writeInt(1);
+                out.writeInt(Integer.MAX_VALUE);
+                out.writeByte(0);
+                out.writeUTF("S01");
+            }
+            assertReadBinaryFails(file);
+
+            // A negative count from a corrupt header
+            SlotLayout.writeBinary(file, layout);
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[8] = (byte) 0xFF;
+            Files.write(file, bytes);
+            assertReadBinaryFails(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void csvWithInvalidSlotIsRejected() throws IOException {
+        Path file = Files.createTempFile("layout", ".csv");
+        try {
+            Files.write(file, "id,type\nS01,staff\nS02,visitor\n".getBytes("UTF-8"));
+            try {
+                SlotLayout.readCsv(file);
+                throw new AssertionError("Expected an IOException");
+            } catch (IOException expected) {
+                // S02 is not a visitor ID
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void zonePrefixRules() {
+        assertTrue(SlotLayout.isValidSlotId("B2-S001", "staff"));
+        assertTrue(SlotLayout.isValidSlotId("ZONE-S01", "staff"));
+        assertFalse(SlotLayout.isValidSlotId("ZONES-S01", "staff")); // Prefix longer than four characters
+        assertFalse(SlotLayout.isValidSlotId("-S01", "staff")); // Empty prefix
+        assertFalse(SlotLayout.isValidSlotId("b2-S01", "staff")); // Lower-case prefix
+    }
+
+    @Test
+    public void lengthIsCappedAtPackingLimit() {
+        assertTrue(SlotLayout.isValidSlotId("S0123456789", "staff"));
+        assertFalse(SlotLayout.isValidSlotId("S01234567890", "staff"));
+        assertFalse(SlotLayout.isValidSlotId("ZONE-V000001", "visitor"));
+        assertEquals(SlotTable.MAX_PACKED_LENGTH, SlotLayout.MAX_SLOT_ID_LENGTH);
+    }
+
+    @Test
+    public void typeLetterMustMatchSlotType() {
+        assertTrue(SlotLayout.isValidSlotId("V01", "visitor"));
+        assertFalse(SlotLayout.isValidSlotId("V01", "staff"));
+        assertFalse(SlotLayout.isValidSlotId("B2-S01", "visitor"));
+        assertFalse(SlotLayout.isValidSlotId("X01", "staff"));
+        assertFalse(SlotLayout.isValidSlotId("S1", "staff")); // Needs at least two digits
+        assertFalse(SlotLayout.isValidSlotId("S01", "truck"));
+    }
+
+    // Helper to check two layouts have the same slots in the same order
+    private static void assertSameSlots(List<ParkingSlot> expected, List<ParkingSlot> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getType(), actual.get(i).getType());
+        }
+    }
+
+    // Helper to check that reading a binary layout file fails
+    private static void assertReadBinaryFails(Path file) {
+        try {
+            SlotLayout.readBinary(file);
+            throw new AssertionError("Expected an IOException");
+        } catch (IOException expected) {
+            // The count does not fit the file
+        }
+    }
+}
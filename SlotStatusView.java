@@ -0,0 +1,133 @@
+/**
+ * The SlotStatusView class holds the ready-made status text of one parking slot, for the
+ * console listing and for the slot labels in the GUI.
+ *
+ * The text is built the first time it is asked for and then reused. It is thrown away when a car
+ * parks in or leaves the slot, or is charged a penalty. The parts that change with time show the
+ * parked duration in whole minutes and the fee, and the text is rebuilt exactly when either of
+ * them would change: at the next whole minute of the stay, or at the next fee step if that comes
+ * first. Listing many slots therefore mostly costs copying strings that already exist, and the
+ * text is never out of date.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+public class SlotStatusView {
+
+    // Shared formatter for parking times (DateTimeFormatter is immutable, so one copy is enough)
+    public static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final ParkingSlot slot; // The slot this view describes
+    private long validUntilMillis; // When the cached text goes out of date (only used while some text is cached)
+    private String listingText; // Cached text for the console listing
+    private String labelHtml; // Cached HTML for the GUI label
+
+    /**
+     * Constructor to set up an empty view of a slot. Nothing is built until it is asked for.
+     *
+     * @param slot The slot to describe.
+     */
+    public SlotStatusView(ParkingSlot slot) {
+        this.slot = slot;
+    }
+
+    /**
+     * Throws away the cached text. Called whenever a car parks in or leaves the slot.
+     */
+    public void invalidate() {
+        listingText = null;
+        labelHtml = null;
+    }
+
+    /**
+     * Gets the one-line status used when listing all slots.
+     *
+     * @return The status line, e.g. "Slot ID: S01, Type: staff, Status: Unoccupied".
+     */
+    public String getListingText() {
+        refreshIfStale();
+        if (listingText == null) {
+            listingText = buildListingText();
+        }
+        return listingText;
+    }
+
+    /**
+     * Gets the HTML shown on the slot's label in the GUI.
+     *
+     * @return The label text as HTML.
+     */
+    public String getLabelHtml() {
+        refreshIfStale();
+        if (labelHtml == null) {
+            labelHtml = buildLabelHtml();
+        }
+        return labelHtml;
+    }
+
+    // Drop the cached text once it has gone out of date, and work out how long new text will stay valid
+    private void refreshIfStale() {
+        long now = System.currentTimeMillis();
+        boolean cached = listingText != null || labelHtml != null;
+        if (cached && now < validUntilMillis) {
+            return;
+        }
+        listingText = null;
+        labelHtml = null;
+        validUntilMillis = nextChangeMillis(now);
+    }
+
+    // Work out when the shown minutes or the fee of the parked car will next change (never for an empty slot)
+    private long nextChangeMillis(long now) {
+        Car car = slot.getCar();
+        if (car == null || car.getParkingTime() == null) {
+            return Long.MAX_VALUE;
+        }
+        long elapsedMillis = Duration.between(car.getParkingTime(), LocalDateTime.now()).toMillis();
+        if (elapsedMillis < 0) {
+            return now - elapsedMillis; // Parked in the future: check again once the stay has started
+        }
+        long nextMinute = (elapsedMillis / 60000 + 1) * 60000;
+        // The fee goes up one second after each whole hour, since any part of an hour is charged in full
+        long elapsedSeconds = elapsedMillis / 1000;
+        long nextFeeStep = (((elapsedSeconds + 3599) / 3600) * 3600 + 1) * 1000;
+        return now + Math.min(nextMinute, nextFeeStep) - elapsedMillis;
+    }
+
+    private String buildListingText() {
+        if (!slot.isOccupied()) {
+            return "Slot ID: " + slot.getId() + ", Type: " + slot.getType() + ", Status: Unoccupied";
+        }
+        Car car = slot.getCar();
+        long totalDurationInSeconds = slot.getParkingDurationInSeconds();
+        long hours = totalDurationInSeconds / 3600;
+        long minutes = (totalDurationInSeconds % 3600) / 60;
+        double fee = slot.calculateParkingFee();
+        return "Slot ID: " + slot.getId() + ", Type: " + slot.getType() + ", Status: Occupied by " + car.getRegNumber() +
+               " (Owner: " + car.getOwner() + "), Parked for: " + hours + " hours " + minutes + " minutes, Fee: $" + fee;
+    }
+
+    private String buildLabelHtml() {
+        String status = "<html><div style='text-align: center;'>" + slot.getId() + "<br>(" + slot.getType() + ")<br>";
+        Car car = slot.getCar();
+        if (car != null && car.getParkingTime() != null) {
+            LocalDateTime parkedTime = car.getParkingTime();
+            Duration duration = Duration.between(parkedTime, LocalDateTime.now());
+
+            long hours = duration.toHours();
+            long minutes = duration.toMinutes() % 60;
+            double fee = slot.calculateParkingFee();
+
+            String formattedTime = parkedTime.format(TIME_FORMAT);
+            status += "Occupied by " + car.getOwner() + "<br>Car Reg. Number: " + car.getRegNumber() + "<br>Parked since: " + formattedTime + "<br>Duration: " + hours + "h " + minutes + "m" + "<br>Fee: $" + fee;
+        } else {
+            status += "Vacant";
+        }
+        return status + "</div></html>";
+    }
+}
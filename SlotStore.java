@@ -0,0 +1,110 @@
+/**
+ * The SlotStore interface is where a CarPark keeps its parking slots.
+ * CarPark does all the parking, billing and overstay work itself and only asks the store to
+ * hold, find and remove slots, so every feature works the same whichever store is used:
+ * - HeapSlotStore keeps one ParkingSlot object per slot (the default)
+ * - OffHeapSlotStore keeps the slot state in a SlotTable outside the Java heap, for very large sites
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface SlotStore {
+
+    /**
+     * Gets the number of slots in the store.
+     *
+     * @return The number of slots.
+     */
+    int size();
+
+    /**
+     * Gets a read-only list of all slots, in the order they were added.
+     *
+     * @return The slots.
+     */
+    List<ParkingSlot> asList();
+
+    /**
+     * Finds a slot by its ID.
+     *
+     * @param slotId The slot ID.
+     * @return The slot, or null if there is no slot with that ID.
+     */
+    ParkingSlot findById(String slotId);
+
+    /**
+     * Gets a number that identifies a slot for as long as it stays in the store, so other parts of
+     * the car park (such as the overstay timers) can refer to slots without keeping objects around.
+     *
+     * @param slotId The slot ID.
+     * @return The slot's key (never negative), or -1 if there is no slot with that ID.
+     */
+    long keyOf(String slotId);
+
+    /**
+     * Finds a slot by the key returned by keyOf.
+     *
+     * @param key The slot's key.
+     * @return The slot, or null if the slot has been removed since.
+     */
+    ParkingSlot findByKey(long key);
+
+    /**
+     * Finds the slot a car is parked in.
+     *
+     * @param regNumber The car's registration number.
+     * @return The slot, or null if the car is not parked here.
+     */
+    ParkingSlot findByCar(String regNumber);
+
+    /**
+     * Checks whether the store can hold a slot with the given ID.
+     *
+     * @param slotId The slot ID.
+     * @return true if the ID can be stored.
+     */
+    boolean canStoreSlotId(String slotId);
+
+    /**
+     * Checks whether the store can hold a car with the given registration number.
+     *
+     * @param regNumber The registration number.
+     * @return true if the registration number can be stored.
+     */
+    boolean canStoreRegNumber(String regNumber);
+
+    /**
+     * Makes room for at least the given total number of slots, so a large batch can be added
+     * without growing the store slot by slot.
+     *
+     * @param expectedSize The total number of slots expected.
+     */
+    void ensureCapacity(int expectedSize);
+
+    /**
+     * Adds a slot. The slot's car, if it has one, is not copied.
+     *
+     * @param slot The slot to add; its ID must pass canStoreSlotId.
+     * @return true if the slot was added, false if a slot with the same ID already exists.
+     */
+    boolean add(ParkingSlot slot);
+
+    /**
+     * Removes a slot.
+     *
+     * @param slotId The ID of the slot to remove.
+     * @return true if the slot was removed, false if it was not found.
+     */
+    boolean remove(String slotId);
+
+    /**
+     * Removes every slot that has no car parked in it.
+     *
+     * @param onRemoved Called with each slot just before it is removed.
+     */
+    void removeUnoccupied(Consumer<ParkingSlot> onRemoved);
+}
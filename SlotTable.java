@@ -0,0 +1,358 @@
+/**
+ * The SlotTable class stores the state of many parking slots outside the Java heap.
+ * Instead of one ParkingSlot object per slot, each piece of state is kept in its own column
+ * (a direct ByteBuffer), and a slot is just a row number into those columns:
+ * - slot ID (packed into a long)
+ * - slot type (0 = staff, 1 = visitor)
+ * - occupied flag
+ * - car registration number (packed into a long, 0 when empty)
+ * - entry time (seconds since 1970, treating the local time as UTC)
+ * - time the car has been billed up to by a close-of-day run (same units, 0 if never billed)
+ * - overstay penalties charged to the car, in cents
+ * - owner's name, as up to 23 bytes of UTF-8 (longer names have to be kept elsewhere)
+ *
+ * IDs and registration numbers are packed into a long with encode/decode. This allows up to
+ * 11 characters from 0-9, A-Z, '-', ' ', '.' and '/', and letters are stored in upper case.
+ * Use canEncode to check a string before storing it.
+ * Slot IDs are found through a LongIndex held in two primitive arrays, so the garbage collector
+ * sees a handful of large arrays instead of millions of objects.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+public class SlotTable {
+
+    public static final byte STAFF = 0; // Type code for staff slots
+    public static final byte VISITOR = 1; // Type code for visitor slots
+
+    public static final int MAX_PACKED_LENGTH = 11; // Longest string that can be packed (BASE^11 still fits in a long)
+    public static final int MAX_OWNER_BYTES = 23; // Longest owner's name (in UTF-8 bytes) the owner column can hold
+
+    private static final String SYMBOLS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ- ./"; // Characters allowed in packed strings
+    private static final int BASE = SYMBOLS.length() + 1; // Digit 0 is reserved so that 0 means "empty"
+    private static final int NO_ROW = LongIndex.NOT_FOUND; // Returned when a slot or car is not in the table
+    private static final int OWNER_WIDTH = MAX_OWNER_BYTES + 1; // Bytes per row in the owner column (length + name)
+    private static final byte NO_OWNER = -1; // Length byte of a row without a stored owner's name
+
+    private ByteBuffer slotIds; // Column of packed slot IDs
+    private ByteBuffer types; // Column of type codes
+    private ByteBuffer occupied; // Column of occupied flags (1 = occupied)
+    private ByteBuffer carIds; // Column of packed registration numbers
+    private ByteBuffer entryEpochs; // Column of entry times in epoch seconds
+    private ByteBuffer billedUpToEpochs; // Column of billed-up-to times in epoch seconds (0 = never billed)
+    private ByteBuffer penaltyCents; // Column of overstay penalties in cents
+    private ByteBuffer owners; // Column of owner's names: a length byte (NO_OWNER if none) and the UTF-8 bytes
+    private int capacity; // Number of rows the columns can hold
+    private int size; // Number of rows in use
+
+    private LongIndex index; // Row of each packed slot ID
+
+    /**
+     * Constructor to set up an empty table with room for the given number of slots.
+     * The table grows automatically if more slots are added.
+     *
+     * @param initialCapacity How many slots to make room for up front.
+     */
+    public SlotTable(int initialCapacity) {
+        allocateColumns(Math.max(16, initialCapacity));
+        index = new LongIndex(initialCapacity);
+    }
+
+    /**
+     * Checks whether a string can be packed by encode.
+     *
+     * @param value The string to check.
+     * @return true if it is at most 11 characters long and only uses supported characters.
+     */
+    public static boolean canEncode(String value) {
+        if (value == null || value.length() > MAX_PACKED_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (SYMBOLS.indexOf(Character.toUpperCase(value.charAt(i))) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Packs a short string (slot ID or registration number) into a long.
+     *
+     * @param value The string to pack; letters are treated as upper case.
+     * @return The packed value, which is never 0 for a non-empty string.
+     * @throws IllegalArgumentException If the string is too long or has an unsupported character.
+     */
+    public static long encode(String value) {
+        if (value.length() > MAX_PACKED_LENGTH) {
+            throw new IllegalArgumentException("'" + value + "' is longer than " + MAX_PACKED_LENGTH + " characters.");
+        }
+        long packed = 0;
+        for (int i = 0; i < value.length(); i++) {
+            int symbol = SYMBOLS.indexOf(Character.toUpperCase(value.charAt(i)));
+            if (symbol < 0) {
+                throw new IllegalArgumentException("'" + value + "' contains an unsupported character.");
+            }
+            packed = packed * BASE + symbol + 1;
+        }
+        return packed;
+    }
+
+    /**
+     * Unpacks a long made by encode back into a string.
+     *
+     * @param packed The packed value.
+     * @return The string (in upper case), or an empty string for 0.
+     */
+    public static String decode(long packed) {
+        char[] chars = new char[MAX_PACKED_LENGTH];
+        int start = chars.length;
+        while (packed != 0) {
+            chars[--start] = SYMBOLS.charAt((int) (packed % BASE) - 1);
+            packed /= BASE;
+        }
+        return new String(chars, start, chars.length - start);
+    }
+
+    // Get the number of slots in the table
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a new, unoccupied slot at the end of the table.
+     *
+     * @param slotId The packed slot ID, which must not already be in the table.
+     * @param type STAFF or VISITOR.
+     * @return The row number of the new slot.
+     */
+    public int addRow(long slotId, byte type) {
+        if (size == capacity) {
+            growColumns(capacity * 2);
+        }
+        int row = size++;
+        slotIds.putLong(row * 8, slotId);
+        types.put(row, type);
+        occupied.put(row, (byte) 0);
+        carIds.putLong(row * 8, 0L);
+        entryEpochs.putLong(row * 8, 0L);
+        billedUpToEpochs.putLong(row * 8, 0L);
+        penaltyCents.putLong(row * 8, 0L);
+        owners.put(row * OWNER_WIDTH, NO_OWNER);
+        index.put(slotId, row);
+        return row;
+    }
+
+    /**
+     * Removes a slot by moving the last row into its place, so the rows stay packed together.
+     * Row numbers handed out earlier may no longer be valid afterwards; look slots up by ID instead.
+     *
+     * @param row The row to remove.
+     */
+    public void removeRow(int row) {
+        long removedId = slotIds.getLong(row * 8);
+        int last = --size;
+        if (row != last) {
+            long movedId = slotIds.getLong(last * 8);
+            slotIds.putLong(row * 8, movedId);
+            types.put(row, types.get(last));
+            occupied.put(row, occupied.get(last));
+            carIds.putLong(row * 8, carIds.getLong(last * 8));
+            entryEpochs.putLong(row * 8, entryEpochs.getLong(last * 8));
+            billedUpToEpochs.putLong(row * 8, billedUpToEpochs.getLong(last * 8));
+            penaltyCents.putLong(row * 8, penaltyCents.getLong(last * 8));
+            for (int i = 0; i < OWNER_WIDTH; i++) {
+                owners.put(row * OWNER_WIDTH + i, owners.get(last * OWNER_WIDTH + i));
+            }
+            index.put(movedId, row);
+        }
+        index.remove(removedId);
+    }
+
+    /**
+     * Finds the row of a slot.
+     *
+     * @param slotId The packed slot ID.
+     * @return The row number, or -1 if the slot is not in the table.
+     */
+    public int findRow(long slotId) {
+        return index.get(slotId);
+    }
+
+    /**
+     * Finds the row of the slot holding a car, by scanning the registration number column.
+     *
+     * @param carId The packed registration number.
+     * @return The row number, or -1 if the car is not parked here.
+     */
+    public int findRowByCar(long carId) {
+        for (int row = 0; row < size; row++) {
+            if (carIds.getLong(row * 8) == carId && occupied.get(row) != 0) {
+                return row;
+            }
+        }
+        return NO_ROW;
+    }
+
+    // Get the packed slot ID in a row
+    public long getSlotId(int row) {
+        return slotIds.getLong(row * 8);
+    }
+
+    // Get the type code (STAFF or VISITOR) in a row
+    public byte getType(int row) {
+        return types.get(row);
+    }
+
+    // Check whether the slot in a row is occupied
+    public boolean isOccupied(int row) {
+        return occupied.get(row) != 0;
+    }
+
+    // Get the packed registration number of the car in a row (0 if empty)
+    public long getCarId(int row) {
+        return carIds.getLong(row * 8);
+    }
+
+    // Get the entry time of the car in a row, in epoch seconds (0 if empty)
+    public long getEntryEpoch(int row) {
+        return entryEpochs.getLong(row * 8);
+    }
+
+    // Get the time the car in a row has been billed up to, in epoch seconds (0 if never billed)
+    public long getBilledUpToEpoch(int row) {
+        return billedUpToEpochs.getLong(row * 8);
+    }
+
+    // Set the time the car in a row has been billed up to, in epoch seconds
+    public void setBilledUpToEpoch(int row, long billedUpToEpoch) {
+        billedUpToEpochs.putLong(row * 8, billedUpToEpoch);
+    }
+
+    // Get the overstay penalties charged to the car in a row, in cents
+    public long getPenaltyCents(int row) {
+        return penaltyCents.getLong(row * 8);
+    }
+
+    // Set the overstay penalties charged to the car in a row, in cents
+    public void setPenaltyCents(int row, long cents) {
+        penaltyCents.putLong(row * 8, cents);
+    }
+
+    /**
+     * Gets the owner's name stored in a row.
+     *
+     * @param row The row of the slot.
+     * @return The name, or null if no name is stored in the row.
+     */
+    public String getOwner(int row) {
+        int length = owners.get(row * OWNER_WIDTH);
+        if (length == NO_OWNER) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = owners.get(row * OWNER_WIDTH + 1 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stores the owner's name in a row, if it fits.
+     *
+     * @param row The row of the slot.
+     * @param owner The name, or null to clear it.
+     * @return true if the name was stored, false if it is longer than MAX_OWNER_BYTES (the row then has no name).
+     */
+    public boolean setOwner(int row, String owner) {
+        byte[] bytes = (owner == null) ? null : owner.getBytes(StandardCharsets.UTF_8);
+        if (bytes == null || bytes.length > MAX_OWNER_BYTES) {
+            owners.put(row * OWNER_WIDTH, NO_OWNER);
+            return bytes == null;
+        }
+        owners.put(row * OWNER_WIDTH, (byte) bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            owners.put(row * OWNER_WIDTH + 1 + i, bytes[i]);
+        }
+        return true;
+    }
+
+    /**
+     * Marks the slot in a row as occupied by a car.
+     *
+     * @param row The row of the slot.
+     * @param carId The packed registration number of the car.
+     * @param entryEpoch The time the car was parked, in epoch seconds.
+     */
+    public void occupy(int row, long carId, long entryEpoch) {
+        carIds.putLong(row * 8, carId);
+        entryEpochs.putLong(row * 8, entryEpoch);
+        billedUpToEpochs.putLong(row * 8, 0L);
+        penaltyCents.putLong(row * 8, 0L);
+        owners.put(row * OWNER_WIDTH, NO_OWNER);
+        occupied.put(row, (byte) 1);
+    }
+
+    /**
+     * Marks the slot in a row as empty.
+     *
+     * @param row The row of the slot.
+     */
+    public void vacate(int row) {
+        occupied.put(row, (byte) 0);
+        carIds.putLong(row * 8, 0L);
+        entryEpochs.putLong(row * 8, 0L);
+        billedUpToEpochs.putLong(row * 8, 0L);
+        penaltyCents.putLong(row * 8, 0L);
+        owners.put(row * OWNER_WIDTH, NO_OWNER);
+    }
+
+    // Create empty columns with room for the given number of rows
+    private void allocateColumns(int rows) {
+        slotIds = column(rows * 8);
+        types = column(rows);
+        occupied = column(rows);
+        carIds = column(rows * 8);
+        entryEpochs = column(rows * 8);
+        billedUpToEpochs = column(rows * 8);
+        penaltyCents = column(rows * 8);
+        owners = column(rows * OWNER_WIDTH);
+        capacity = rows;
+    }
+
+    // Move all rows into bigger columns
+    private void growColumns(int rows) {
+        ByteBuffer oldSlotIds = slotIds;
+        ByteBuffer oldTypes = types;
+        ByteBuffer oldOccupied = occupied;
+        ByteBuffer oldCarIds = carIds;
+        ByteBuffer oldEntryEpochs = entryEpochs;
+        ByteBuffer oldBilledUpToEpochs = billedUpToEpochs;
+        ByteBuffer oldPenaltyCents = penaltyCents;
+        ByteBuffer oldOwners = owners;
+        allocateColumns(rows);
+        copyColumn(oldSlotIds, slotIds, size * 8);
+        copyColumn(oldTypes, types, size);
+        copyColumn(oldOccupied, occupied, size);
+        copyColumn(oldCarIds, carIds, size * 8);
+        copyColumn(oldEntryEpochs, entryEpochs, size * 8);
+        copyColumn(oldBilledUpToEpochs, billedUpToEpochs, size * 8);
+        copyColumn(oldPenaltyCents, penaltyCents, size * 8);
+        copyColumn(oldOwners, owners, size * OWNER_WIDTH);
+    }
+
+    private static ByteBuffer column(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static void copyColumn(ByteBuffer from, ByteBuffer to, int bytes) {
+        ByteBuffer source = from.duplicate();
+        source.position(0).limit(bytes);
+        to.duplicate().put(source);
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * The SlotTableBenchmark class compares the two slot stores of CarPark: HeapSlotStore and the
+ * off-heap OffHeapSlotStore. Both runs use the same CarPark class, so everything apart from the
+ * slots themselves (forecaster, overstay timers, sessions) is the same in both.
+ * For each store it builds a car park, parks a car in every other slot, and then reports:
+ * - how much heap the car park keeps alive after a full garbage collection
+ * - how much off-heap (direct) memory it uses
+ * - how long a full garbage collection takes while it is alive
+ * - how many collections and how much collection time a burst of short-lived allocations causes
+ *
+ * Run it with the number of slots as the only argument (default 1,000,000), ideally with a fixed
+ * heap size so the runs are comparable, e.g. java -Xms2g -Xmx2g SlotTableBenchmark 1000000
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.IntFunction;
+
+public class SlotTableBenchmark {
+
+    private static final int CHURN_ALLOCATIONS = 20_000_000; // Short-lived objects allocated to provoke collections
+
+    /**
+     * Main method to run the benchmark.
+     *
+     * @param args Optional number of slots to create (half staff, half visitor).
+     */
+    public static void main(String[] args) {
+        int slotCount = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        int half = slotCount / 2;
+        PrintStream console = System.out;
+        PrintStream quiet = new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                // Discard the per-car messages printed while setting up
+            }
+        });
+
+        console.println("Benchmarking " + slotCount + " slots, half of them occupied.\n");
+
+        benchmark(console, quiet, "CarPark with HeapSlotStore", half, HeapSlotStore::new);
+        benchmark(console, quiet, "CarPark with OffHeapSlotStore", half, OffHeapSlotStore::new);
+    }
+
+    // Build a car park on a new store, fill every other slot and report on it
+    private static void benchmark(PrintStream console, PrintStream quiet, String name, int half, IntFunction<SlotStore> newStore) {
+        long baseline = usedHeapAfterGc();
+        long directBaseline = directMemoryUsed();
+        System.setOut(quiet);
+        CarPark carPark = new CarPark(half, half, newStore.apply(2 * half));
+        List<ParkingSlot> slots = carPark.getSlots();
+        for (int i = 0; i < slots.size(); i += 2) {
+            ParkingSlot slot = slots.get(i);
+            carPark.parkCar(slot.getId(), new Car("C" + i, "Owner" + (i % 1000), slot.getType().equals("staff")));
+        }
+        System.setOut(console);
+        report(console, name, baseline, directBaseline);
+        carPark.getSlots().size(); // Keep the car park alive until after the report
+    }
+
+    // Print memory and GC figures for a car park that is currently alive
+    private static void report(PrintStream out, String name, long heapBaseline, long directBaseline) {
+        long gcStart = System.nanoTime();
+        long retained = usedHeapAfterGc() - heapBaseline;
+        long fullGcMillis = (System.nanoTime() - gcStart) / 1_000_000;
+        long direct = directMemoryUsed() - directBaseline;
+
+        long countBefore = totalGcCount();
+        long timeBefore = totalGcMillis();
+        Object[] recent = new Object[1024]; // Keeps each object briefly reachable so the allocation really happens
+        for (int i = 0; i < CHURN_ALLOCATIONS; i++) {
+            recent[i & 1023] = new long[4]; // Short-lived garbage, as a busy gate engine would produce
+        }
+        long churnCollections = totalGcCount() - countBefore;
+        long churnMillis = totalGcMillis() - timeBefore;
+
+        out.println(name + ":");
+        out.println("  Heap retained:        " + (retained / 1024 / 1024) + " MB");
+        out.println("  Direct memory:        " + (direct / 1024 / 1024) + " MB");
+        out.println("  Full GC time (x3):    " + fullGcMillis + " ms");
+        out.println("  Churn collections:    " + churnCollections + " (" + churnMillis + " ms total)");
+        out.println();
+    }
+
+    // Run a few full collections and return the heap still in use
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long directMemoryUsed() {
+        long used = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                used += pool.getMemoryUsed();
+            }
+        }
+        return used;
+    }
+
+    private static long totalGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long totalGcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Tests for SlotTable: packing of IDs and registration numbers, and that rows can still be
+ * found by slot ID, with their data intact, after many random adds and deletes.
+ *
+ * @author agent
+ * @version 1
+ * @date 19/10/2026
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class SlotTableTest {
+    private static final String SYMBOLS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ- ./";
+
+    @Test
+    public void encodeAndDecodeRoundTrip() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            int length = 1 + random.nextInt(SlotTable.MAX_PACKED_LENGTH);
+            StringBuilder value = new StringBuilder();
+            for (int j = 0; j < length; j++) {
+                value.append(SYMBOLS.charAt(random.nextInt(SYMBOLS.length())));
+            }
+            long packed = SlotTable.encode(value.toString());
+            assertTrue(packed != 0);
+            assertEquals(value.toString(), SlotTable.decode(packed));
+        }
+        // The longest string of the last symbol must still fit in a positive long
+        assertEquals("///////////", SlotTable.decode(SlotTable.encode("///////////")));
+        assertEquals("", SlotTable.decode(0));
+    }
+
+    @Test
+    public void encodeStoresLettersInUpperCase() {
+        assertEquals("AB-12 C", SlotTable.decode(SlotTable.encode("ab-12 c")));
+        assertEquals(SlotTable.encode("abc123"), SlotTable.encode("ABC123"));
+    }
+
+    @Test
+    public void canEncodeRejectsLongOrUnsupportedStrings() {
+        assertTrue(SlotTable.canEncode("ZONEA-S0001"));
+        assertFalse(SlotTable.canEncode("ZONEA-S00001"));
+        assertFalse(SlotTable.canEncode("S_01"));
+        assertFalse(SlotTable.canEncode(null));
+        try {
+            SlotTable.encode("ZONEA-S00001");
+            throw new AssertionError("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Too long to pack
+        }
+    }
+
+    @Test
+    public void randomAddsAndDeletesKeepRowsFindable() {
+        SlotTable table = new SlotTable(4); // Small so the columns and the index have to grow
+        Map<Long, Long> expected = new HashMap<>(); // Entry time stored for each slot ID still in the table
+        Random random = new Random(7);
+
+        for (int step = 0; step < 50000; step++) {
+            // IDs from a small range so the same ones are deleted and added again, and collide in the index
+            long slotId = SlotTable.encode("S" + random.nextInt(3000));
+            int row = table.findRow(slotId);
+            if (random.nextInt(3) > 0 && row < 0) {
+                row = table.addRow(slotId, SlotTable.VISITOR);
+                table.occupy(row, slotId, step);
+                table.setPenaltyCents(row, step * 2L);
+                table.setOwner(row, "Owner " + step);
+                expected.put(slotId, (long) step);
+            } else if (row >= 0) {
+                table.removeRow(row);
+                expected.remove(slotId);
+            }
+        }
+
+        assertEquals(expected.size(), table.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            int row = table.findRow(entry.getKey());
+            assertTrue(row >= 0);
+            assertEquals((long) entry.getKey(), table.getSlotId(row));
+            assertEquals((long) entry.getKey(), table.getCarId(row));
+            assertEquals((long) entry.getValue(), table.getEntryEpoch(row));
+            assertEquals(entry.getValue() * 2, table.getPenaltyCents(row));
+            assertEquals("Owner " + entry.getValue(), table.getOwner(row));
+        }
+        for (int i = 0; i < 3000; i++) {
+            long slotId = SlotTable.encode("S" + i);
+            assertEquals(expected.containsKey(slotId), table.findRow(slotId) >= 0);
+        }
+    }
+
+    @Test
+    public void ownerColumnOnlyHoldsShortNames() {
+        SlotTable table = new SlotTable(1);
+        int row = table.addRow(SlotTable.encode("S01"), SlotTable.STAFF);
+        assertTrue(table.setOwner(row, "Bhawana Joshi"));
+        assertEquals("Bhawana Joshi", table.getOwner(row));
+        assertFalse(table.setOwner(row, "A name much longer than the column"));
+        assertNull(table.getOwner(row));
+        table.setOwner(row, "Ann");
+        table.vacate(row);
+        assertNull(table.getOwner(row));
+    }
+}